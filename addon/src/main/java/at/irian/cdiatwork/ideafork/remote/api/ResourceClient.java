@@ -38,9 +38,18 @@ public @interface ResourceClient {
     @Nonbinding
     String version();
 
+    //127.0.0.1 is tried right after the first address chosen by the load-balancer
     @Nonbinding
     boolean preferLocalNode() default true;
 
+    //name of the LoadBalancer - see LoadBalancerRegistry for the default
+    @Nonbinding
+    String loadBalancer() default "";
+
+    //in bytes - larger request-bodies get compressed (gzip) and compressed responses get accepted (-1 deactivates compression)
+    @Nonbinding
+    int compressionThreshold() default -1;
+
     @Nonbinding
     long connectionTimeout() default 3000;
 
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+//only used for GET methods - results are cached based on Cache-Control and re-validated via ETag/Last-Modified
+//cached results are shared and therefore they shouldn't be changed by the caller
+//the token of the caller is part of the cache-key - results are only re-used for calls with the same token
+//(a token which gets renewed with every response prevents any cache-hit)
+//@ResponseCaching(false) at a method deactivates caching enabled for the whole @ResourceClient
+@Retention(RUNTIME)
+@Target({TYPE, METHOD})
+public @interface ResponseCaching {
+    boolean value() default true;
+}
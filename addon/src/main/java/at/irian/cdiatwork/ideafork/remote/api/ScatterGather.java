@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+//invokes the method on all addresses of the service (e.g. to invalidate caches or to collect per-node stats)
+//the method has to return ScatterGatherResult (or Future<ScatterGatherResult>) if no combiner is configured
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface ScatterGather {
+    //max. parallel requests
+    int maxConcurrency() default 10;
+
+    //in ms for all requests - a negative value uses connectionTimeout + readTimeout of the @ResourceClient
+    long deadline() default -1;
+
+    //reduces the results of all addresses to the result of the method
+    Class<? extends ResultCombiner> combiner() default ResultCombiner.class;
+}
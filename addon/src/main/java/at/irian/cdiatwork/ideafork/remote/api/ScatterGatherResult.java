@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.api;
+
+import java.util.Collections;
+import java.util.Map;
+
+//results and errors per address (host:port) - addresses which didn't respond before the deadline have a TimeoutException
+public class ScatterGatherResult<T> {
+    private final Map<String, T> results;
+    private final Map<String, Throwable> errors;
+
+    public ScatterGatherResult(Map<String, T> results, Map<String, Throwable> errors) {
+        this.results = Collections.unmodifiableMap(results);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public Map<String, T> getResults() {
+        return results;
+    }
+
+    public Map<String, Throwable> getErrors() {
+        return errors;
+    }
+
+    public boolean isSuccessful() {
+        return errors.isEmpty();
+    }
+}
@@ -18,44 +18,138 @@
  */
 package at.irian.cdiatwork.ideafork.remote.impl;
 
-import com.hazelcast.config.Config;
-import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import org.apache.deltaspike.core.api.exclude.Exclude;
+import org.apache.deltaspike.core.util.ExceptionUtils;
 import at.irian.cdiatwork.ideafork.remote.api.ServiceNotReachableEvent;
 import at.irian.cdiatwork.ideafork.remote.spi.DistributedCacheManager;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Disposes;
 import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-//exclude it if a value is configured and it isn't 'hazelcast'
+//default - alternative: distributed-cache_type=local (see LocalCacheManager)
+@Exclude(onExpression = "distributed-cache_type!=hazelcast")
 @ApplicationScoped
 public class HazelcastCacheManager implements DistributedCacheManager {
+    private static final String CACHE_NAME = "service-configs";
+    private static final String DESCRIPTOR_CACHE_NAME = "service-descriptors";
+
     @Inject
     private HazelcastInstance hazelcastInstance;
 
+    @Inject
+    private BeanManager beanManager;
+
+    private volatile IMap<String, String> cache;
+    private volatile IMap<String, ServiceDescriptor> descriptorCache;
+
+    //the instance (= proxy) gets started with the first access of the registry and not during the bootstrapping of the container
+    //(nodes with endpoints access it in the background right after the deployment - see SimpleEndpointScannerExtension)
     @Produces
     @ApplicationScoped
     protected HazelcastInstance exposeHazelcastInstance() {
-        Config config = new Config();
-        return Hazelcast.newHazelcastInstance(config);
+        return HazelcastInstanceFactory.create(CACHE_NAME, DESCRIPTOR_CACHE_NAME);
+    }
+
+    //members leave the cluster gracefully (-> no wait for the failure-detection of the other members)
+    protected void shutdownHazelcastInstance(@Disposes HazelcastInstance hazelcastInstance) {
+        hazelcastInstance.shutdown();
     }
 
     @Override
     public IMap<String, String> getCache() {
-        return hazelcastInstance.getMap("service-configs");
+        IMap<String, String> result = cache;
+
+        if (result == null) {
+            synchronized (this) {
+                result = cache;
+
+                if (result == null) {
+                    result = getMapWithChangeListener(CACHE_NAME);
+                    cache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public IMap<String, ServiceDescriptor> getServiceDescriptors() {
+        IMap<String, ServiceDescriptor> result = descriptorCache;
+
+        if (result == null) {
+            synchronized (this) {
+                result = descriptorCache;
+
+                if (result == null) {
+                    result = getMapWithChangeListener(DESCRIPTOR_CACHE_NAME);
+                    descriptorCache = result;
+                }
+            }
+        }
+        return result;
     }
 
     @Override
     public void removeLocally(String key) {
+        getServiceDescriptors().tryRemove(key, 3, SECONDS);
         getCache().tryRemove(key, 3, SECONDS);
     }
 
+    @Override
+    public Map<String, ServiceDescriptor> getServiceDescriptors(Set<String> keys) {
+        return getServiceDescriptors().getAll(keys);
+    }
+
+    //IMap#putAll doesn't support a ttl - async puts are sent without waiting for each other (~ one round-trip for all entries)
+    @Override
+    public void putServiceDescriptors(Map<String, ServiceDescriptor> serviceDescriptors, long ttl, TimeUnit timeUnit) {
+        IMap<String, ServiceDescriptor> descriptorCache = getServiceDescriptors();
+
+        if (ttl <= 0) {
+            descriptorCache.putAll(serviceDescriptors);
+            return;
+        }
+
+        List<Future<ServiceDescriptor>> pendingPuts = new ArrayList<Future<ServiceDescriptor>>(serviceDescriptors.size());
+        for (Map.Entry<String, ServiceDescriptor> descriptorEntry : serviceDescriptors.entrySet()) {
+            pendingPuts.add(descriptorCache.putAsync(descriptorEntry.getKey(), descriptorEntry.getValue(), ttl, timeUnit));
+        }
+
+        try {
+            for (Future<ServiceDescriptor> pendingPut : pendingPuts) {
+                pendingPut.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        } catch (ExecutionException e) {
+            throw ExceptionUtils.throwAsRuntimeException(e.getCause());
+        }
+    }
+
+    private <V> IMap<String, V> getMapWithChangeListener(String name) {
+        IMap<String, V> map = hazelcastInstance.getMap(name);
+        //values are needed to skip heartbeats which didn't change the descriptor
+        map.addEntryListener(new ServiceConfigChangeListener(beanManager), true);
+        return map;
+    }
+
     protected void onServiceNotReachableEvent(@Observes ServiceNotReachableEvent event, DistributedCacheManager cacheProvider) {
         cacheProvider.removeLocally(event.getServiceKey());
     }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl;
+
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+//distributed-cache_hazelcast-mode:
+// - member (default): the node holds (a part of) the registry - multicast-discovery or tcp-ip join with distributed-cache_members
+// - client: the node only connects to dedicated members (distributed-cache_members)
+//   the members need the ServiceDescriptorSerializer as well (e.g. via hazelcast.xml)
+public class HazelcastInstanceFactory {
+    private static final Logger LOG = Logger.getLogger(HazelcastInstanceFactory.class.getName());
+
+    public static HazelcastInstance create(String... cacheNames) {
+        String mode = ConfigResolver.getProjectStageAwarePropertyValue("distributed-cache_hazelcast-mode", "member");
+
+        if ("client".equalsIgnoreCase(mode)) {
+            return createClient();
+        }
+
+        if (!"member".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException("unsupported hazelcast-mode: " + mode);
+        }
+        return createMember(cacheNames);
+    }
+
+    private static HazelcastInstance createMember(String[] cacheNames) {
+        Config config = new Config();
+        config.getSerializationConfig().addSerializerConfig(createSerializerConfig());
+
+        String groupName = getConfiguredValue("distributed-cache_group-name");
+        if (groupName != null) {
+            config.getGroupConfig().setName(groupName);
+        }
+
+        String port = getConfiguredValue("distributed-cache_port");
+        if (port != null) {
+            config.getNetworkConfig().setPort(Integer.parseInt(port));
+        }
+
+        //explicit members replace the (slow) multicast-discovery
+        List<String> members = getMembers();
+        if (!members.isEmpty()) {
+            JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+            joinConfig.getMulticastConfig().setEnabled(false);
+            joinConfig.getTcpIpConfig().setEnabled(true);
+
+            for (String member : members) {
+                joinConfig.getTcpIpConfig().addMember(member);
+            }
+        }
+
+        String joinWaitSeconds = getConfiguredValue("distributed-cache_join-wait-seconds");
+        if (joinWaitSeconds != null) {
+            config.setProperty("hazelcast.wait.seconds.before.join", joinWaitSeconds);
+        }
+
+        //the registry is small - fewer partitions reduce the startup- and migration-overhead
+        String partitionCount = getConfiguredValue("distributed-cache_partition-count");
+        if (partitionCount != null) {
+            config.setProperty("hazelcast.partition.count", partitionCount);
+        }
+
+        int backupCount = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("distributed-cache_backup-count", "1"));
+        int asyncBackupCount = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("distributed-cache_async-backup-count", "0"));
+
+        for (String cacheName : cacheNames) {
+            MapConfig mapConfig = config.getMapConfig(cacheName);
+            mapConfig.setBackupCount(backupCount);
+            mapConfig.setAsyncBackupCount(asyncBackupCount);
+        }
+
+        LOG.fine("starting hazelcast-member - members: " + members);
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    private static HazelcastInstance createClient() {
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.getSerializationConfig().addSerializerConfig(createSerializerConfig());
+
+        String groupName = getConfiguredValue("distributed-cache_group-name");
+        if (groupName != null) {
+            clientConfig.getGroupConfig().setName(groupName);
+        }
+
+        List<String> members = getMembers();
+        if (members.isEmpty()) {
+            throw new IllegalStateException("distributed-cache_members is required for the hazelcast client-mode");
+        }
+        clientConfig.getNetworkConfig().addAddress(members.toArray(new String[members.size()]));
+
+        LOG.fine("starting hazelcast-client - members: " + members);
+        return HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    private static SerializerConfig createSerializerConfig() {
+        return new SerializerConfig().setImplementation(new ServiceDescriptorSerializer()).setTypeClass(ServiceDescriptor.class);
+    }
+
+    //e.g. 10.0.0.1:5701,10.0.0.2:5701
+    private static List<String> getMembers() {
+        List<String> members = new ArrayList<String>();
+        String configuredMembers = getConfiguredValue("distributed-cache_members");
+
+        if (configuredMembers != null) {
+            for (String member : configuredMembers.split(",")) {
+                if (!member.trim().isEmpty()) {
+                    members.add(member.trim());
+                }
+            }
+        }
+        return members;
+    }
+
+    private static String getConfiguredValue(String key) {
+        String value = ConfigResolver.getProjectStageAwarePropertyValue(key);
+        return value != null && !value.trim().isEmpty() ? value.trim() : null;
+    }
+}
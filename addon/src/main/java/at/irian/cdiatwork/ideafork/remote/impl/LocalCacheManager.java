@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl;
+
+import at.irian.cdiatwork.ideafork.remote.api.ServiceConfigChangedEvent;
+import at.irian.cdiatwork.ideafork.remote.spi.DistributedCacheManager;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+import org.apache.deltaspike.core.api.exclude.Exclude;
+import org.apache.deltaspike.core.util.ExceptionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+//in-process registry for single-node deployments and tests (distributed-cache_type=local) - no cluster to start or join
+//optionally seeded with static descriptors (key=descriptor as json) for services which aren't part of this process
+@Exclude(onExpression = "distributed-cache_type!=local")
+@ApplicationScoped
+public class LocalCacheManager implements DistributedCacheManager {
+    private static final Logger LOG = Logger.getLogger(LocalCacheManager.class.getName());
+
+    @Inject
+    private BeanManager beanManager;
+
+    private ConcurrentMap<String, String> cache = new ConcurrentHashMap<String, String>();
+    private ConcurrentMap<String, ServiceDescriptor> descriptorCache = new ExpiringDescriptorMap();
+    private ConcurrentMap<String, Long> expirations = new ConcurrentHashMap<String, Long>();
+
+    @PostConstruct
+    protected void init() {
+        String seedFile = ConfigResolver.getProjectStageAwarePropertyValue("distributed-cache_seed-file");
+
+        if (seedFile != null && !seedFile.trim().isEmpty()) {
+            for (Map.Entry<Object, Object> seedEntry : loadSeedFile(seedFile.trim()).entrySet()) {
+                cache.put(seedEntry.getKey().toString(), seedEntry.getValue().toString());
+            }
+            LOG.fine("seeded " + cache.size() + " entries from " + seedFile);
+        }
+    }
+
+    @Override
+    public ConcurrentMap<String, String> getCache() {
+        return cache;
+    }
+
+    @Override
+    public ConcurrentMap<String, ServiceDescriptor> getServiceDescriptors() {
+        return descriptorCache;
+    }
+
+    //not triggered by ServiceNotReachableEvent (unlike HazelcastCacheManager) - there are no other nodes which could re-publish
+    //the entry (seeded entries would be lost) - if it gets called, the entry is just removed for the near-caches
+    @Override
+    public void removeLocally(String key) {
+        boolean removedDescriptor = descriptorCache.remove(key) != null;
+
+        if (cache.remove(key) != null || removedDescriptor) {
+            beanManager.fireEvent(new ServiceConfigChangedEvent(key));
+        }
+    }
+
+    @Override
+    public Map<String, ServiceDescriptor> getServiceDescriptors(Set<String> keys) {
+        Map<String, ServiceDescriptor> result = new HashMap<String, ServiceDescriptor>();
+
+        for (String key : keys) {
+            ServiceDescriptor serviceDescriptor = descriptorCache.get(key);
+
+            if (serviceDescriptor != null) {
+                result.put(key, serviceDescriptor);
+            }
+        }
+        return result;
+    }
+
+    //there is no background-eviction - expired entries get purged with the next put (= the next heartbeat in this process)
+    //and aren't returned by #get in the meantime (see ExpiringDescriptorMap)
+    @Override
+    public void putServiceDescriptors(Map<String, ServiceDescriptor> serviceDescriptors, long ttl, TimeUnit timeUnit) {
+        purgeExpiredEntries();
+
+        long expiresAt = System.currentTimeMillis() + timeUnit.toMillis(ttl);
+
+        for (Map.Entry<String, ServiceDescriptor> descriptorEntry : serviceDescriptors.entrySet()) {
+            String key = descriptorEntry.getKey();
+
+            if (ttl > 0) {
+                expirations.put(key, expiresAt);
+            } else {
+                expirations.remove(key);
+            }
+
+            if (!descriptorEntry.getValue().equals(descriptorCache.put(key, descriptorEntry.getValue()))) {
+                beanManager.fireEvent(new ServiceConfigChangedEvent(key));
+            }
+        }
+    }
+
+    private void purgeExpiredEntries() {
+        long now = System.currentTimeMillis();
+
+        for (Map.Entry<String, Long> expiration : expirations.entrySet()) {
+            removeIfExpired(expiration.getKey(), expiration.getValue(), now);
+        }
+    }
+
+    private boolean removeIfExpired(String key, Long expiresAt, long now) {
+        if (expiresAt == null || expiresAt >= now) {
+            return false;
+        }
+
+        if (expirations.remove(key, expiresAt)) {
+            descriptorCache.remove(key);
+            beanManager.fireEvent(new ServiceConfigChangedEvent(key));
+            return true;
+        }
+        return false; //re-published (or removed) concurrently
+    }
+
+    //expired entries aren't returned - even if they weren't purged yet
+    private class ExpiringDescriptorMap extends ConcurrentHashMap<String, ServiceDescriptor> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public ServiceDescriptor get(Object key) {
+            ServiceDescriptor serviceDescriptor = super.get(key);
+
+            if (serviceDescriptor != null && removeIfExpired((String) key, expirations.get(key), System.currentTimeMillis())) {
+                return null;
+            }
+            return serviceDescriptor;
+        }
+    }
+
+    //classpath-resource or file
+    private static Properties loadSeedFile(String seedFile) {
+        Properties seedEntries = new Properties();
+
+        try {
+            InputStream inputStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(seedFile);
+
+            if (inputStream == null) {
+                File file = new File(seedFile);
+
+                if (!file.isFile()) {
+                    throw new IllegalStateException("seed-file not found: " + seedFile);
+                }
+                inputStream = new FileInputStream(file);
+            }
+
+            try {
+                seedEntries.load(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        }
+        return seedEntries;
+    }
+}
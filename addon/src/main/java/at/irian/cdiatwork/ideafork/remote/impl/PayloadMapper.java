@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl;
+
+import at.irian.cdiatwork.ideafork.remote.spi.ObjectMapperProvider;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+//one (thread-safe) mapper for all remote calls + pre-built readers/writers per type
+//binary formats (smile, cbor) re-use the readers/writers (and therefore the config of the mapper) with a different JsonFactory
+@ApplicationScoped
+public class PayloadMapper {
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    @Inject
+    private ObjectMapperProvider objectMapperProvider;
+
+    private ObjectMapper objectMapper;
+
+    private Map<String, JsonFactory> binaryFormats = new HashMap<String, JsonFactory>();
+
+    private ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<JavaType, ObjectReader>();
+    private ConcurrentMap<Class, ObjectWriter> writers = new ConcurrentHashMap<Class, ObjectWriter>();
+
+    @PostConstruct
+    protected void init() {
+        objectMapper = objectMapperProvider.createObjectMapper();
+
+        binaryFormats.put(APPLICATION_SMILE, new SmileFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+        binaryFormats.put(APPLICATION_CBOR, new CBORFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+    }
+
+    public boolean isBinaryFormat(String mediaType) {
+        return mediaType != null && binaryFormats.containsKey(mediaType);
+    }
+
+    public JavaType constructType(Type type) {
+        return objectMapper.getTypeFactory().constructType(type);
+    }
+
+    public ObjectReader getReader(JavaType targetType) {
+        ObjectReader reader = readers.get(targetType);
+
+        if (reader == null) {
+            reader = objectMapper.reader(targetType);
+            readers.put(targetType, reader);
+        }
+        return reader;
+    }
+
+    public ObjectReader getReader(Class targetType) {
+        return getReader(constructType(targetType));
+    }
+
+    public ObjectWriter getWriter(Class sourceType) {
+        ObjectWriter writer = writers.get(sourceType);
+
+        if (writer == null) {
+            writer = objectMapper.writerWithType(sourceType);
+            writers.put(sourceType, writer);
+        }
+        return writer;
+    }
+
+    public String writeValueAsString(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return objectMapper.writeValueAsString(null);
+        }
+        return getWriter(value.getClass()).writeValueAsString(value);
+    }
+
+    public <T> T readValue(String content, Class<T> targetType) throws IOException {
+        return getReader(targetType).readValue(content);
+    }
+
+    public <T> T readValue(String content, JavaType targetType) throws IOException {
+        return getReader(targetType).readValue(content);
+    }
+
+    public <T> T readValue(InputStream content, JavaType targetType) throws IOException {
+        return getReader(targetType).readValue(content);
+    }
+
+    public byte[] writeValueAsBytes(Object value, String mediaType) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        writeValue(content, value, mediaType);
+        return content.toByteArray();
+    }
+
+    //the target-stream isn't closed
+    public void writeValue(OutputStream target, Object value, String mediaType) throws IOException {
+        JsonFactory binaryFormat = binaryFormats.get(mediaType);
+
+        if (binaryFormat == null) {
+            throw new IllegalArgumentException("unsupported media-type: " + mediaType);
+        }
+
+        JsonGenerator generator = binaryFormat.createGenerator(target);
+        try {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                getWriter(value.getClass()).writeValue(generator, value);
+            }
+        } finally {
+            generator.close();
+        }
+    }
+
+    //json is used for all other media-types
+    public <T> T readValue(InputStream content, JavaType targetType, String mediaType) throws IOException {
+        JsonFactory binaryFormat = mediaType != null ? binaryFormats.get(mediaType) : null;
+
+        if (binaryFormat == null) {
+            return readValue(content, targetType);
+        }
+        return getReader(targetType).readValue(binaryFormat.createParser(content));
+    }
+}
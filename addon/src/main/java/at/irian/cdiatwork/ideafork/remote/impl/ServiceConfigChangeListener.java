@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl;
+
+import at.irian.cdiatwork.ideafork.remote.api.ServiceConfigChangedEvent;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+
+import javax.enterprise.inject.spi.BeanManager;
+
+//translates changes of the distributed map to cdi-events (e.g. to invalidate local caches)
+public class ServiceConfigChangeListener implements
+    EntryAddedListener<String, Object>, EntryUpdatedListener<String, Object>,
+    EntryRemovedListener<String, Object>, EntryEvictedListener<String, Object> {
+
+    private final BeanManager beanManager;
+
+    public ServiceConfigChangeListener(BeanManager beanManager) {
+        this.beanManager = beanManager;
+    }
+
+    @Override
+    public void entryAdded(EntryEvent<String, Object> event) {
+        fireChangedEvent(event);
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<String, Object> event) {
+        //heartbeats re-put the same descriptor to reset the ttl
+        if (event.getValue() != null && event.getValue().equals(event.getOldValue())) {
+            return;
+        }
+        fireChangedEvent(event);
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<String, Object> event) {
+        fireChangedEvent(event);
+    }
+
+    @Override
+    public void entryEvicted(EntryEvent<String, Object> event) {
+        fireChangedEvent(event);
+    }
+
+    private void fireChangedEvent(EntryEvent<String, Object> event) {
+        beanManager.fireEvent(new ServiceConfigChangedEvent(event.getKey()));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl;
+
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+//compact binary form of descriptors stored in the registry (instead of json) - needs to be registered on all members and clients
+//addresses are written in a stable order -> equal descriptors have an equal binary form (used by IMap#remove(key, value))
+public class ServiceDescriptorSerializer implements StreamSerializer<ServiceDescriptor> {
+    static final int TYPE_ID = 7001;
+
+    private static final int FORMAT_VERSION = 1;
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, ServiceDescriptor serviceDescriptor) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        writeNullableString(out, serviceDescriptor.getProtocol());
+        writeNullableString(out, serviceDescriptor.getPort());
+        writeNullableString(out, serviceDescriptor.getTargetServiceMethod());
+        writeNullableString(out, serviceDescriptor.getKey());
+        writeNullableString(out, serviceDescriptor.getVersion());
+
+        Set<String> addresses = serviceDescriptor.getAddresses();
+        if (addresses == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(addresses.size());
+            for (String address : new TreeSet<String>(addresses)) {
+                out.writeUTF(address);
+            }
+        }
+
+        List<String> mediaTypes = serviceDescriptor.getMediaTypes();
+        if (mediaTypes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(mediaTypes.size());
+            for (String mediaType : mediaTypes) {
+                out.writeUTF(mediaType);
+            }
+        }
+    }
+
+    @Override
+    public ServiceDescriptor read(ObjectDataInput in) throws IOException {
+        int formatVersion = in.readByte();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("unsupported format-version of the service-descriptor: " + formatVersion);
+        }
+
+        ServiceDescriptor serviceDescriptor = new ServiceDescriptor();
+        serviceDescriptor.setProtocol(readNullableString(in));
+        serviceDescriptor.setPort(readNullableString(in));
+        serviceDescriptor.setTargetServiceMethod(readNullableString(in));
+        serviceDescriptor.setKey(readNullableString(in));
+        serviceDescriptor.setVersion(readNullableString(in));
+
+        int addressCount = in.readInt();
+        if (addressCount >= 0) {
+            Set<String> addresses = new HashSet<String>(addressCount * 2);
+            for (int i = 0; i < addressCount; i++) {
+                addresses.add(in.readUTF());
+            }
+            serviceDescriptor.setAddresses(Collections.unmodifiableSet(addresses));
+        }
+
+        int mediaTypeCount = in.readInt();
+        if (mediaTypeCount >= 0) {
+            List<String> mediaTypes = new ArrayList<String>(mediaTypeCount);
+            for (int i = 0; i < mediaTypeCount; i++) {
+                mediaTypes.add(in.readUTF());
+            }
+            serviceDescriptor.setMediaTypes(Collections.unmodifiableList(mediaTypes));
+        }
+        return serviceDescriptor;
+    }
+
+    @Override
+    public void destroy() {
+        //nothing to do
+    }
+
+    private static void writeNullableString(ObjectDataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(ObjectDataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.scheduler.api.Scheduled;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+
+import javax.inject.Inject;
+
+@Scheduled(cronExpression = "{resource-client_health-check-schedule}", startScopes = { /*no additional scope-handling needed*/ })
+public class AddressHealthCheckTask implements Job {
+    @Inject
+    private AddressHealthChecker addressHealthChecker;
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        addressHealthChecker.checkAddresses();
+    }
+}
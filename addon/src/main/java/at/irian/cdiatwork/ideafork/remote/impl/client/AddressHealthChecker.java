@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+//optional live/dead view of all addresses (host:port) used by the client - maintained via tcp-connects in the background
+//probes run in a small bounded pool - at most one probe per address is in progress
+@ApplicationScoped
+public class AddressHealthChecker {
+    private static final Logger LOG = Logger.getLogger(AddressHealthChecker.class.getName());
+
+    private ConcurrentMap<String, MonitoredAddress> monitoredAddresses = new ConcurrentHashMap<String, MonitoredAddress>();
+
+    private boolean enabled;
+    private int probeTimeout;
+    private long maxUnusedTime;
+    private ThreadPoolExecutor probeExecutor;
+
+    @PostConstruct
+    protected void init() {
+        enabled = Boolean.parseBoolean(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_health-check-enabled", "false"));
+        probeTimeout = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_health-check-timeout", "1000"));
+        maxUnusedTime = Long.parseLong(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_health-check-max-unused-time", "300000"));
+
+        if (enabled) {
+            int poolSize = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_health-check-pool-size", "4"));
+            int queueSize = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_health-check-queue-size", "500"));
+
+            probeExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new RemoteInvocationExecutor.NamedThreadFactory("resource-client-health-check"));
+            probeExecutor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //addresses get monitored as long as they are used
+    public void watch(String targetAddress) {
+        if (!enabled) {
+            return;
+        }
+
+        MonitoredAddress monitoredAddress = monitoredAddresses.get(targetAddress);
+
+        if (monitoredAddress == null) {
+            MonitoredAddress newMonitoredAddress = new MonitoredAddress();
+            monitoredAddress = monitoredAddresses.putIfAbsent(targetAddress, newMonitoredAddress);
+
+            if (monitoredAddress == null) {
+                monitoredAddress = newMonitoredAddress;
+            }
+        }
+        monitoredAddress.lastUsed = System.currentTimeMillis();
+    }
+
+    //unknown addresses are considered to be alive
+    public boolean isAlive(String targetAddress) {
+        MonitoredAddress monitoredAddress = monitoredAddresses.get(targetAddress);
+        return monitoredAddress == null || monitoredAddress.alive;
+    }
+
+    public void checkAddresses() {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        for (Iterator<Map.Entry<String, MonitoredAddress>> entryIterator = monitoredAddresses.entrySet().iterator(); entryIterator.hasNext();) {
+            Map.Entry<String, MonitoredAddress> entry = entryIterator.next();
+
+            if (now - entry.getValue().lastUsed > maxUnusedTime) {
+                entryIterator.remove();
+                continue;
+            }
+            scheduleProbe(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void scheduleProbe(final String targetAddress, final MonitoredAddress monitoredAddress) {
+        if (!monitoredAddress.probeInProgress.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            probeExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        boolean alive = probe(targetAddress);
+
+                        if (alive != monitoredAddress.alive) {
+                            LOG.info(targetAddress + " is " + (alive ? "reachable again" : "not reachable"));
+                        }
+                        monitoredAddress.alive = alive;
+                    } finally {
+                        monitoredAddress.probeInProgress.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            monitoredAddress.probeInProgress.set(false); //try again with the next run
+        }
+    }
+
+    private boolean probe(String targetAddress) {
+        int portSeparator = targetAddress.lastIndexOf(':');
+        String host = targetAddress.substring(0, portSeparator);
+        int port = Integer.parseInt(targetAddress.substring(portSeparator + 1));
+
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), probeTimeout);
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOG.finest(e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    protected void shutdown() {
+        if (probeExecutor != null) {
+            probeExecutor.shutdownNow();
+        }
+    }
+
+    private static class MonitoredAddress {
+        private volatile boolean alive = true;
+        private volatile long lastUsed;
+        private final AtomicBoolean probeInProgress = new AtomicBoolean();
+    }
+}
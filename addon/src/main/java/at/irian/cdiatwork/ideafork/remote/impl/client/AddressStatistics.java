@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//in-flight requests and latency (ewma) per service and address - used by the load-balancers
+@ApplicationScoped
+public class AddressStatistics {
+    private ConcurrentMap<String, AddressStatistic> addressStatistics = new ConcurrentHashMap<String, AddressStatistic>();
+    private ConcurrentMap<String, String> lastSuccessfulAddresses = new ConcurrentHashMap<String, String>();
+
+    private double smoothingFactor;
+
+    @PostConstruct
+    protected void init() {
+        smoothingFactor = Double.parseDouble(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_latency-smoothing-factor", "0.3"));
+    }
+
+    public void onRequestStarted(String serviceKey, String address) {
+        getAddressStatistic(serviceKey, address).inFlightRequests.incrementAndGet();
+    }
+
+    public void onRequestFinished(String serviceKey, String address, long durationInMicros, boolean successful) {
+        AddressStatistic addressStatistic = getAddressStatistic(serviceKey, address);
+        addressStatistic.inFlightRequests.decrementAndGet();
+
+        if (successful) {
+            addressStatistic.recordLatency(durationInMicros, smoothingFactor);
+            lastSuccessfulAddresses.put(serviceKey, address);
+        }
+    }
+
+    public int getInFlightRequests(String serviceKey, String address) {
+        return getAddressStatistic(serviceKey, address).inFlightRequests.get();
+    }
+
+    //in microseconds - 0 if there was no successful request so far
+    public double getAverageLatency(String serviceKey, String address) {
+        return Double.longBitsToDouble(getAddressStatistic(serviceKey, address).averageLatency.get());
+    }
+
+    public String getLastSuccessfulAddress(String serviceKey) {
+        return lastSuccessfulAddresses.get(serviceKey);
+    }
+
+    private AddressStatistic getAddressStatistic(String serviceKey, String address) {
+        String statisticKey = serviceKey + "|" + address;
+        AddressStatistic addressStatistic = addressStatistics.get(statisticKey);
+
+        if (addressStatistic == null) {
+            AddressStatistic newAddressStatistic = new AddressStatistic();
+            addressStatistic = addressStatistics.putIfAbsent(statisticKey, newAddressStatistic);
+
+            if (addressStatistic == null) {
+                addressStatistic = newAddressStatistic;
+            }
+        }
+        return addressStatistic;
+    }
+
+    private static class AddressStatistic {
+        private final AtomicInteger inFlightRequests = new AtomicInteger();
+        private final AtomicLong averageLatency = new AtomicLong(Double.doubleToLongBits(0));
+
+        private void recordLatency(long latency, double smoothingFactor) {
+            while (true) {
+                long currentValue = averageLatency.get();
+                double currentAverage = Double.longBitsToDouble(currentValue);
+                double newAverage = currentAverage == 0 ? latency : currentAverage + smoothingFactor * (latency - currentAverage);
+
+                if (averageLatency.compareAndSet(currentValue, Double.doubleToLongBits(newAverage))) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+public class CachedResponse {
+    private final Object value;
+    private final String eTag;
+    private final String lastModified;
+    private final long expiresAt;
+    private final long size;
+
+    CachedResponse(Object value, String eTag, String lastModified, long expiresAt, long size) {
+        this.value = value;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.expiresAt = expiresAt;
+        this.size = size;
+    }
+
+    //entry after a successful re-validation (304)
+    CachedResponse renew(long newExpiresAt) {
+        return new CachedResponse(value, eTag, lastModified, newExpiresAt, size);
+    }
+
+    public boolean isFresh() {
+        return System.currentTimeMillis() < expiresAt;
+    }
+
+    public boolean isRevalidatable() {
+        return eTag != null || lastModified != null;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.CallOutcome;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class CallMetrics extends LatencyMetrics implements CallMetricsMXBean {
+    private final AtomicLongArray outcomeCounts = new AtomicLongArray(CallOutcome.values().length);
+
+    public void record(long durationInMicros, CallOutcome outcome) {
+        record(durationInMicros);
+        outcomeCounts.incrementAndGet(outcome.ordinal());
+    }
+
+    @Override
+    public long getSuccessCount() {
+        return outcomeCounts.get(CallOutcome.SUCCESS.ordinal());
+    }
+
+    @Override
+    public long getIgnoredStatusCount() {
+        return outcomeCounts.get(CallOutcome.IGNORED_STATUS.ordinal());
+    }
+
+    @Override
+    public long getUnexpectedStatusCount() {
+        return outcomeCounts.get(CallOutcome.UNEXPECTED_STATUS.ordinal());
+    }
+
+    @Override
+    public long getConnectFailureCount() {
+        return outcomeCounts.get(CallOutcome.CONNECT_FAILURE.ordinal());
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return outcomeCounts.get(CallOutcome.TIMEOUT.ordinal());
+    }
+
+    @Override
+    public long getErrorCount() {
+        return outcomeCounts.get(CallOutcome.ERROR.ordinal());
+    }
+}
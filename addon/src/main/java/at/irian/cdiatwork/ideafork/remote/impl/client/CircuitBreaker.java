@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+//per address - count-based sliding window of the last calls (closed) -> open -> probe calls (half-open) -> closed or open
+public class CircuitBreaker {
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDuration;
+    private final long openDuration;
+    private final int halfOpenCalls;
+
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int windowIndex;
+    private int callCount;
+    private int failedCallCount;
+    private int slowCallCount;
+
+    private volatile State state = State.CLOSED;
+    private long openUntil;
+    private int runningProbeCalls;
+    private int successfulProbeCalls;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold,
+                          int slowCallRateThreshold, long slowCallDuration, long openDuration, int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDuration = slowCallDuration;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    //doesn't change the state - used to skip open circuits early
+    public boolean isCallPermitted() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                return System.currentTimeMillis() >= openUntil;
+            }
+            if (state == State.HALF_OPEN) {
+                return runningProbeCalls < halfOpenCalls;
+            }
+            return true;
+        }
+    }
+
+    //every acquired permission has to be followed by #onSuccess, #onFailure or #onIgnoredCall
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                runningProbeCalls = 0;
+                successfulProbeCalls = 0;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (runningProbeCalls >= halfOpenCalls) {
+                    return false;
+                }
+                runningProbeCalls++;
+            }
+            return true;
+        }
+    }
+
+    public void onSuccess(long durationInMillis) {
+        recordCall(false, durationInMillis);
+    }
+
+    public void onFailure(long durationInMillis) {
+        recordCall(true, durationInMillis);
+    }
+
+    //releases the permission without recording the call - for failures which don't say anything about the address
+    public synchronized void onIgnoredCall() {
+        if (state == State.HALF_OPEN && runningProbeCalls > 0) {
+            runningProbeCalls--;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private synchronized void recordCall(boolean failed, long durationInMillis) {
+        boolean slow = durationInMillis >= slowCallDuration;
+
+        if (state == State.HALF_OPEN) {
+            if (runningProbeCalls > 0) {
+                runningProbeCalls--;
+            }
+
+            if (failed || slow) {
+                open();
+            } else if (++successfulProbeCalls >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+
+        if (state == State.OPEN) {
+            return; //result of a call started before the circuit was opened
+        }
+
+        if (callCount == windowSize) {
+            if (failedCalls[windowIndex]) {
+                failedCallCount--;
+            }
+            if (slowCalls[windowIndex]) {
+                slowCallCount--;
+            }
+        } else {
+            callCount++;
+        }
+
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+
+        if (failed) {
+            failedCallCount++;
+        }
+        if (slow) {
+            slowCallCount++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+
+        if (callCount >= minimumCalls &&
+            (failedCallCount * 100 >= failureRateThreshold * callCount || slowCallCount * 100 >= slowCallRateThreshold * callCount)) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + openDuration;
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < windowSize; i++) {
+            failedCalls[i] = false;
+            slowCalls[i] = false;
+        }
+        windowIndex = 0;
+        callCount = 0;
+        failedCallCount = 0;
+        slowCallCount = 0;
+    }
+}
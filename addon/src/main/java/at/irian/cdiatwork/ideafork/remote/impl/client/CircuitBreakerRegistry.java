@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@ApplicationScoped
+public class CircuitBreakerRegistry {
+    private ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+    private int windowSize;
+    private int minimumCalls;
+    private int failureRateThreshold;
+    private int slowCallRateThreshold;
+    private long slowCallDuration;
+    private long openDuration;
+    private int halfOpenCalls;
+
+    @PostConstruct
+    protected void init() {
+        windowSize = Integer.parseInt(getConfiguredValue("window-size", "20"));
+        minimumCalls = Math.min(windowSize, Integer.parseInt(getConfiguredValue("minimum-calls", "10")));
+        failureRateThreshold = Integer.parseInt(getConfiguredValue("failure-rate-threshold", "50"));
+        slowCallRateThreshold = Integer.parseInt(getConfiguredValue("slow-call-rate-threshold", "100"));
+        slowCallDuration = Long.parseLong(getConfiguredValue("slow-call-duration", "10000"));
+        openDuration = Long.parseLong(getConfiguredValue("open-duration", "30000"));
+        halfOpenCalls = Integer.parseInt(getConfiguredValue("half-open-calls", "3"));
+    }
+
+    //per service and host:port
+    public CircuitBreaker getCircuitBreaker(String serviceKey, String targetAddress) {
+        String circuitBreakerKey = serviceKey + "|" + targetAddress;
+        CircuitBreaker circuitBreaker = circuitBreakers.get(circuitBreakerKey);
+
+        if (circuitBreaker == null) {
+            CircuitBreaker newCircuitBreaker = new CircuitBreaker(
+                windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallDuration, openDuration, halfOpenCalls);
+            circuitBreaker = circuitBreakers.putIfAbsent(circuitBreakerKey, newCircuitBreaker);
+
+            if (circuitBreaker == null) {
+                circuitBreaker = newCircuitBreaker;
+            }
+        }
+        return circuitBreaker;
+    }
+
+    private static String getConfiguredValue(String key, String defaultValue) {
+        return ConfigResolver.getProjectStageAwarePropertyValue("resource-client_circuit-breaker-" + key, defaultValue);
+    }
+}
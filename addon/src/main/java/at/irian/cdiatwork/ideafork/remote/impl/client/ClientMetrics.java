@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.CallOutcome;
+import at.irian.cdiatwork.ideafork.remote.spi.ClientMetricsRecorder;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+//forwards the measurements to all ClientMetricsRecorder beans (resource-client_metrics-enabled=false deactivates it)
+@ApplicationScoped
+public class ClientMetrics {
+    @Inject
+    @Any
+    private Instance<ClientMetricsRecorder> recorderInstances;
+
+    private List<ClientMetricsRecorder> recorders = new ArrayList<ClientMetricsRecorder>();
+
+    @PostConstruct
+    protected void init() {
+        if (!Boolean.parseBoolean(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_metrics-enabled", "true"))) {
+            return;
+        }
+
+        for (ClientMetricsRecorder recorder : recorderInstances) {
+            recorders.add(recorder);
+        }
+    }
+
+    public boolean isEnabled() {
+        return !recorders.isEmpty();
+    }
+
+    public void recordCall(String serviceKey, String address, String method, long durationInMicros, CallOutcome outcome) {
+        for (ClientMetricsRecorder recorder : recorders) {
+            recorder.recordCall(serviceKey, address, method, durationInMicros, outcome);
+        }
+    }
+
+    public void recordFailover(String serviceKey, String method) {
+        for (ClientMetricsRecorder recorder : recorders) {
+            recorder.recordFailover(serviceKey, method);
+        }
+    }
+
+    public void recordDescriptorResolution(String serviceKey, long durationInMicros) {
+        for (ClientMetricsRecorder recorder : recorders) {
+            recorder.recordDescriptorResolution(serviceKey, durationInMicros);
+        }
+    }
+
+    public void recordSerialization(String serviceKey, String method, long durationInMicros) {
+        for (ClientMetricsRecorder recorder : recorders) {
+            recorder.recordSerialization(serviceKey, method, durationInMicros);
+        }
+    }
+
+    public void recordDeserialization(String serviceKey, String method, long durationInMicros) {
+        for (ClientMetricsRecorder recorder : recorders) {
+            recorder.recordDeserialization(serviceKey, method, durationInMicros);
+        }
+    }
+}
@@ -18,32 +18,104 @@
  */
 package at.irian.cdiatwork.ideafork.remote.impl.client;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import at.irian.cdiatwork.ideafork.remote.api.ServiceConfigChangedEvent;
+import at.irian.cdiatwork.ideafork.remote.api.ServiceNotReachableEvent;
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
 import org.apache.deltaspike.core.api.config.ConfigResolver;
 import org.apache.deltaspike.core.util.ExceptionUtils;
+import at.irian.cdiatwork.ideafork.remote.spi.DistributedCacheManager;
 import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
 import at.irian.cdiatwork.ideafork.remote.spi.ServiceResolver;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ApplicationScoped
 public class ConfigSourceAwareServiceResolver implements ServiceResolver {
+    @Inject
+    private PayloadMapper payloadMapper;
+
+    @Inject
+    private DistributedCacheManager cacheProvider;
+
+    //near-cache of parsed descriptors - invalidated via ServiceConfigChangedEvent (and the ttl as fallback)
+    //a ttl <= 0 de-activates it
+    private ConcurrentMap<String, CachedServiceDescriptor> nearCache = new ConcurrentHashMap<String, CachedServiceDescriptor>();
+    private AtomicLong invalidationCount = new AtomicLong();
+
+    private long timeToLive;
+
+    @PostConstruct
+    protected void init() {
+        timeToLive = Long.parseLong(ConfigResolver.getProjectStageAwarePropertyValue("service-descriptor_cache-ttl", "30000"));
+    }
+
     public ServiceDescriptor resolveServiceDetails(String serviceKey) {
-        //result resolved by DistributedCacheConfigSource
-        String cachedServiceDescriptor = ConfigResolver.getProjectStageAwarePropertyValue(serviceKey);
+        CachedServiceDescriptor cachedEntry = nearCache.get(serviceKey);
 
-        ServiceDescriptor foundDescriptor = null;
+        if (cachedEntry != null && !cachedEntry.isExpired()) {
+            return cachedEntry.serviceDescriptor;
+        }
+
+        long currentInvalidationCount = invalidationCount.get();
+
+        //published by ServiceRegistrar (the addresses are unmodifiable already)
+        ServiceDescriptor foundDescriptor = cacheProvider.getServiceDescriptors().get(serviceKey);
+
+        //fallback: descriptors as json resolved by DistributedCacheConfigSource or other config-sources
+        String cachedServiceDescriptor = foundDescriptor == null ? ConfigResolver.getProjectStageAwarePropertyValue(serviceKey) : null;
 
         if (cachedServiceDescriptor != null) {
-            ObjectMapper objectMapper = new ObjectMapper();
             try {
-                foundDescriptor = objectMapper.readValue(cachedServiceDescriptor, ServiceDescriptor.class);
+                foundDescriptor = payloadMapper.readValue(cachedServiceDescriptor, ServiceDescriptor.class);
             } catch (IOException e) {
                 throw ExceptionUtils.throwAsRuntimeException(e);
             }
+
+            if (foundDescriptor.getAddresses() != null) {
+                foundDescriptor.setAddresses(Collections.unmodifiableSet(foundDescriptor.getAddresses()));
+            }
         }
 
+        if (foundDescriptor == null) {
+            nearCache.remove(serviceKey);
+        } else if (timeToLive > 0 && currentInvalidationCount == invalidationCount.get()) { //don't cache a result which might be outdated already
+            nearCache.put(serviceKey, new CachedServiceDescriptor(foundDescriptor, System.currentTimeMillis() + timeToLive));
+        }
         return foundDescriptor;
     }
+
+    protected void onServiceConfigChanged(@Observes ServiceConfigChangedEvent event) {
+        invalidate(event.getServiceKey());
+    }
+
+    protected void onServiceNotReachable(@Observes ServiceNotReachableEvent event) {
+        invalidate(event.getServiceKey());
+    }
+
+    private void invalidate(String serviceKey) {
+        invalidationCount.incrementAndGet();
+        nearCache.remove(serviceKey);
+    }
+
+    private static class CachedServiceDescriptor {
+        private final ServiceDescriptor serviceDescriptor;
+        private final long expiresAt;
+
+        private CachedServiceDescriptor(ServiceDescriptor serviceDescriptor, long expiresAt) {
+            this.serviceDescriptor = serviceDescriptor;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
 }
@@ -18,21 +18,34 @@
  */
 package at.irian.cdiatwork.ideafork.remote.impl.client;
 
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
 import org.apache.deltaspike.core.api.provider.BeanManagerProvider;
 import org.apache.deltaspike.core.api.provider.BeanProvider;
 import org.apache.deltaspike.core.spi.config.ConfigSource;
+import org.apache.deltaspike.core.util.ExceptionUtils;
 import at.irian.cdiatwork.ideafork.remote.spi.DistributedCacheManager;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
 
 import javax.inject.Inject;
 import java.util.Collections;
 import java.util.Map;
 
+//serves descriptor-keys (<version>/<resource>) - other keys only with distributed-cache_config-source-all-keys=true
+//(before the lazy start of the registry every key was served - that started the registry with any config-lookup)
 public class DistributedCacheConfigSource implements ConfigSource {
     private final static int ordinal = 3000;
+    private static final String REGISTRY_CONFIG_PREFIX = "distributed-cache_";
 
     @Inject
     private DistributedCacheManager cacheProvider;
 
+    @Inject
+    private PayloadMapper payloadMapper;
+
+    private Boolean allKeysServed;
+
     @Override
     public int getOrdinal() {
         return ordinal;
@@ -40,13 +53,49 @@ public class DistributedCacheConfigSource implements ConfigSource {
 
     @Override
     public String getPropertyValue(String key) {
+        //the config of the registry itself can't be stored in the registry
+        if (key.startsWith(REGISTRY_CONFIG_PREFIX)) {
+            return null;
+        }
+
+        //by default other config-lookups don't start (or access) the registry
+        boolean descriptorKey = key.indexOf('/') != -1;
+        if (!descriptorKey && !isAllKeysServed()) {
+            return null;
+        }
+
         if (this.cacheProvider == null) {
             if (!BeanManagerProvider.isActive()) {
                 return null;
             }
             BeanProvider.injectFields(this);
         }
-        return cacheProvider.getCache().get(key);
+        String value = cacheProvider.getCache().get(key);
+
+        if (value != null || !descriptorKey) {
+            return value;
+        }
+
+        //compatibility for lookups of (typed) descriptors via ConfigResolver - ServiceResolver uses the typed cache directly
+        ServiceDescriptor serviceDescriptor = cacheProvider.getServiceDescriptors().get(key);
+
+        if (serviceDescriptor == null) {
+            return null;
+        }
+
+        try {
+            return payloadMapper.writeValueAsString(serviceDescriptor);
+        } catch (JsonProcessingException e) {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        }
+    }
+
+    private boolean isAllKeysServed() {
+        if (allKeysServed == null) {
+            allKeysServed = Boolean.parseBoolean(
+                ConfigResolver.getProjectStageAwarePropertyValue(REGISTRY_CONFIG_PREFIX + "config-source-all-keys", "false"));
+        }
+        return allKeysServed;
     }
 
     @Override
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.api.AdaptiveTimeout;
+import at.irian.cdiatwork.ideafork.remote.api.Hedging;
+import at.irian.cdiatwork.ideafork.remote.api.ResultCombiner;
+import at.irian.cdiatwork.ideafork.remote.api.ScatterGather;
+import com.fasterxml.jackson.databind.JavaType;
+
+//immutable meta-data of a @ResourceClient method - created once per method to avoid reflection per call
+public class InvocationPlan {
+    private final String declaringClassName;
+    private final String methodName;
+    private final String serviceName;
+    private final String serviceVersion;
+    private final boolean preferLocalNode;
+    private final String loadBalancer;
+    private final int compressionThreshold;
+    private final long connectionTimeout;
+    private final long readTimeout;
+
+    private final String httpMethod;
+    private final PathTemplate pathTemplate;
+    private final String[] queryParamNames;
+    private final int[] queryParamIndexes;
+    private final int[] bodyParamIndexes;
+
+    private final boolean async;
+    private final boolean voidResult;
+    private final JavaType responseType;
+    private final int[] ignoredStatusCodes;
+
+    private final boolean idempotent;
+    private final Hedging hedging;
+    private final boolean coalesced;
+    private final boolean responseCached;
+    private final ScatterGather scatterGather;
+    private final ResultCombiner<Object> resultCombiner;
+    private final AdaptiveTimeout adaptiveTimeout;
+
+    InvocationPlan(String declaringClassName, String methodName,
+                   String serviceName, String serviceVersion, boolean preferLocalNode, String loadBalancer, int compressionThreshold,
+                   long connectionTimeout, long readTimeout,
+                   String httpMethod, PathTemplate pathTemplate,
+                   String[] queryParamNames, int[] queryParamIndexes, int[] bodyParamIndexes,
+                   boolean async, boolean voidResult, JavaType responseType, int[] ignoredStatusCodes,
+                   boolean idempotent, Hedging hedging, boolean coalesced, boolean responseCached,
+                   ScatterGather scatterGather, ResultCombiner<Object> resultCombiner, AdaptiveTimeout adaptiveTimeout) {
+        this.declaringClassName = declaringClassName;
+        this.methodName = methodName;
+        this.serviceName = serviceName;
+        this.serviceVersion = serviceVersion;
+        this.preferLocalNode = preferLocalNode;
+        this.loadBalancer = loadBalancer;
+        this.compressionThreshold = compressionThreshold;
+        this.connectionTimeout = connectionTimeout;
+        this.readTimeout = readTimeout;
+        this.httpMethod = httpMethod;
+        this.pathTemplate = pathTemplate;
+        this.queryParamNames = queryParamNames;
+        this.queryParamIndexes = queryParamIndexes;
+        this.bodyParamIndexes = bodyParamIndexes;
+        this.async = async;
+        this.voidResult = voidResult;
+        this.responseType = responseType;
+        this.ignoredStatusCodes = ignoredStatusCodes;
+        this.idempotent = idempotent;
+        this.hedging = hedging;
+        this.coalesced = coalesced;
+        this.responseCached = responseCached;
+        this.scatterGather = scatterGather;
+        this.resultCombiner = resultCombiner;
+        this.adaptiveTimeout = adaptiveTimeout;
+    }
+
+    public boolean isIgnoredStatusCode(int statusCode) {
+        for (int statusCodeToIgnore : ignoredStatusCodes) {
+            if (statusCodeToIgnore == statusCode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getDeclaringClassName() {
+        return declaringClassName;
+    }
+
+    //interface#method
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getServiceVersion() {
+        return serviceVersion;
+    }
+
+    public boolean isPreferLocalNode() {
+        return preferLocalNode;
+    }
+
+    public String getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    //-1 if compression is deactivated
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public long getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public long getReadTimeout() {
+        return readTimeout;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    //null if the method has no @Path
+    public PathTemplate getPathTemplate() {
+        return pathTemplate;
+    }
+
+    public String[] getQueryParamNames() {
+        return queryParamNames;
+    }
+
+    public int[] getQueryParamIndexes() {
+        return queryParamIndexes;
+    }
+
+    public int[] getBodyParamIndexes() {
+        return bodyParamIndexes;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isVoidResult() {
+        return voidResult;
+    }
+
+    public JavaType getResponseType() {
+        return responseType;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    public boolean isHedged() {
+        return hedging != null;
+    }
+
+    //null if hedging isn't active for the method
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    public boolean isCoalesced() {
+        return coalesced;
+    }
+
+    public boolean isResponseCached() {
+        return responseCached;
+    }
+
+    public boolean isScatterGather() {
+        return scatterGather != null;
+    }
+
+    //null if the method isn't invoked on all addresses
+    public ScatterGather getScatterGather() {
+        return scatterGather;
+    }
+
+    //null if the ScatterGatherResult is returned as it is
+    public ResultCombiner<Object> getResultCombiner() {
+        return resultCombiner;
+    }
+
+    public boolean isAdaptiveTimeout() {
+        return adaptiveTimeout != null;
+    }
+
+    //null if the static readTimeout is used
+    public AdaptiveTimeout getAdaptiveTimeout() {
+        return adaptiveTimeout;
+    }
+
+    //latencies are tracked for hedging and adaptive timeouts
+    public boolean isLatencyTracked() {
+        return hedging != null || adaptiveTimeout != null;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.api.AdaptiveTimeout;
+import at.irian.cdiatwork.ideafork.remote.api.Coalescing;
+import at.irian.cdiatwork.ideafork.remote.api.Hedging;
+import at.irian.cdiatwork.ideafork.remote.api.Idempotent;
+import at.irian.cdiatwork.ideafork.remote.api.IgnoreResultWithStatusCode;
+import at.irian.cdiatwork.ideafork.remote.api.ResourceClient;
+import at.irian.cdiatwork.ideafork.remote.api.ResponseCaching;
+import at.irian.cdiatwork.ideafork.remote.api.ResultCombiner;
+import at.irian.cdiatwork.ideafork.remote.api.ScatterGather;
+import at.irian.cdiatwork.ideafork.remote.api.ScatterGatherResult;
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import org.apache.deltaspike.core.api.provider.BeanProvider;
+import org.apache.deltaspike.core.util.AnnotationUtils;
+
+import javax.enterprise.inject.spi.BeanManager;
+import javax.ws.rs.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+public class InvocationPlanFactory {
+    public static InvocationPlan create(BeanManager beanManager, PayloadMapper payloadMapper, Method method, Class<?> proxyClass) {
+        ResourceClient resourceClient = AnnotationUtils.extractAnnotationFromMethodOrClass(beanManager, method, proxyClass, ResourceClient.class);
+
+        String httpMethod = extractHttpMethod(method);
+
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        String[] pathParamNames = new String[parameterAnnotations.length];
+        List<String> queryParamNames = new ArrayList<String>();
+        List<Integer> queryParamIndexes = new ArrayList<Integer>();
+        List<Integer> bodyParamIndexes = new ArrayList<Integer>();
+
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            QueryParam queryParam = null;
+            for (Annotation parameterAnnotation : parameterAnnotations[i]) {
+                if (QueryParam.class.isAssignableFrom(parameterAnnotation.annotationType())) {
+                    if (queryParam == null) {
+                        queryParam = (QueryParam) parameterAnnotation;
+                    }
+                } else if (PathParam.class.isAssignableFrom(parameterAnnotation.annotationType())) {
+                    pathParamNames[i] = ((PathParam) parameterAnnotation).value();
+                }
+            }
+
+            if (queryParam != null) {
+                queryParamNames.add(queryParam.value());
+                queryParamIndexes.add(i);
+            }
+
+            if (isBodyParameter(httpMethod, parameterAnnotations.length, queryParam != null, pathParamNames[i] != null)) {
+                bodyParamIndexes.add(i);
+            }
+        }
+
+        Path subPath = method.getAnnotation(Path.class);
+        PathTemplate pathTemplate = subPath != null ? PathTemplate.compile(subPath.value(), pathParamNames) : null;
+
+        IgnoreResultWithStatusCode ignoreResultWithStatusCode =
+            AnnotationUtils.extractAnnotationFromMethod(beanManager, method, IgnoreResultWithStatusCode.class);
+        int[] ignoredStatusCodes = ignoreResultWithStatusCode != null ? ignoreResultWithStatusCode.value() : new int[0];
+
+        //all addresses get called anyway - hedging, coalescing and response-caching aren't used for such calls
+        ScatterGather scatterGather = AnnotationUtils.extractAnnotationFromMethod(beanManager, method, ScatterGather.class);
+
+        boolean idempotent = HttpMethod.GET.equals(httpMethod) ||
+            AnnotationUtils.extractAnnotationFromMethod(beanManager, method, Idempotent.class) != null;
+        Hedging hedging = null;
+
+        if (idempotent && scatterGather == null) {
+            hedging = AnnotationUtils.extractAnnotationFromMethodOrClass(beanManager, method, proxyClass, Hedging.class);
+        }
+
+        boolean coalesced = HttpMethod.GET.equals(httpMethod) && scatterGather == null &&
+            AnnotationUtils.extractAnnotationFromMethodOrClass(beanManager, method, proxyClass, Coalescing.class) != null;
+
+        ResponseCaching responseCaching = HttpMethod.GET.equals(httpMethod) && scatterGather == null ?
+            AnnotationUtils.extractAnnotationFromMethodOrClass(beanManager, method, proxyClass, ResponseCaching.class) : null;
+
+        //generic result-types (collections, maps, arrays,...) are resolved as a whole
+        boolean async = Future.class.equals(method.getReturnType());
+        Type resultType = async ? extractFutureResultType(method.getGenericReturnType()) : method.getGenericReturnType();
+
+        //scatter-gather calls use their deadline
+        AdaptiveTimeout adaptiveTimeout = scatterGather == null ?
+            AnnotationUtils.extractAnnotationFromMethodOrClass(beanManager, method, proxyClass, AdaptiveTimeout.class) : null;
+
+        ResultCombiner<Object> resultCombiner = null;
+        if (scatterGather != null) {
+            resultCombiner = createResultCombiner(beanManager, scatterGather);
+
+            //the response-type of a single address
+            if (resultCombiner == null) {
+                resultType = extractScatterGatherResultType(resultType, method);
+            }
+        }
+
+        return new InvocationPlan(
+            method.getDeclaringClass().getName(), method.getDeclaringClass().getName() + "#" + method.getName(),
+            resourceClient.name(), resourceClient.version(), resourceClient.preferLocalNode(), resourceClient.loadBalancer(),
+            resourceClient.compressionThreshold(), resourceClient.connectionTimeout(), resourceClient.readTimeout(),
+            httpMethod, pathTemplate, queryParamNames.toArray(new String[queryParamNames.size()]),
+            toIntArray(queryParamIndexes), toIntArray(bodyParamIndexes),
+            async, Void.TYPE.equals(resultType) || Void.class.equals(resultType), payloadMapper.constructType(resultType), ignoredStatusCodes,
+            idempotent, hedging, coalesced, responseCaching != null && responseCaching.value(),
+            scatterGather, resultCombiner, adaptiveTimeout);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResultCombiner<Object> createResultCombiner(BeanManager beanManager, ScatterGather scatterGather) {
+        Class<? extends ResultCombiner> combinerClass = scatterGather.combiner();
+
+        if (ResultCombiner.class.equals(combinerClass)) {
+            return null;
+        }
+
+        ResultCombiner<Object> resultCombiner = BeanProvider.getContextualReference(beanManager, combinerClass, true);
+
+        if (resultCombiner != null) {
+            return resultCombiner;
+        }
+
+        try {
+            return combinerClass.newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("failed to create " + combinerClass.getName(), e);
+        }
+    }
+
+    private static Type extractScatterGatherResultType(Type resultType, Method method) {
+        if (resultType instanceof ParameterizedType && ScatterGatherResult.class.equals(((ParameterizedType) resultType).getRawType())) {
+            return ((ParameterizedType) resultType).getActualTypeArguments()[0];
+        }
+
+        if (ScatterGatherResult.class.equals(resultType)) {
+            return Object.class;
+        }
+        throw new IllegalStateException(method.toGenericString() + " has to return " + ScatterGatherResult.class.getName() +
+            " or use a combiner (see " + ScatterGather.class.getName() + ")");
+    }
+
+    private static String extractHttpMethod(Method method) {
+        if (method.getAnnotation(POST.class) != null) {
+            return HttpMethod.POST;
+        }
+
+        if (method.getAnnotation(GET.class) != null) {
+            return HttpMethod.GET;
+        }
+
+        if (method.getAnnotation(PUT.class) != null) {
+            return HttpMethod.PUT;
+        }
+
+        if (method.getAnnotation(DELETE.class) != null) {
+            return HttpMethod.DELETE;
+        }
+        return HttpMethod.POST;
+    }
+
+    //post-requests send all parameters without @QueryParam, put-requests all parameters without @PathParam (or the only one)
+    private static boolean isBodyParameter(String httpMethod, int parameterCount, boolean queryParam, boolean pathParam) {
+        if (HttpMethod.POST.equals(httpMethod)) {
+            return !queryParam;
+        }
+        if (HttpMethod.PUT.equals(httpMethod)) {
+            return parameterCount == 1 || !pathParam;
+        }
+        return false;
+    }
+
+    private static Type extractFutureResultType(Type futureType) {
+        if (futureType instanceof ParameterizedType) {
+            return ((ParameterizedType) futureType).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    private static int[] toIntArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+}
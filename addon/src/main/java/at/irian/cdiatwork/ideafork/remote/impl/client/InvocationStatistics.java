@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@ApplicationScoped
+public class InvocationStatistics {
+    private ConcurrentMap<InvocationPlan, LatencyTracker> latencyTrackers = new ConcurrentHashMap<InvocationPlan, LatencyTracker>();
+
+    public LatencyTracker getLatencyTracker(InvocationPlan invocationPlan) {
+        LatencyTracker latencyTracker = latencyTrackers.get(invocationPlan);
+
+        if (latencyTracker == null) {
+            LatencyTracker newLatencyTracker = new LatencyTracker();
+            latencyTracker = latencyTrackers.putIfAbsent(invocationPlan, newLatencyTracker);
+
+            if (latencyTracker == null) {
+                latencyTracker = newLatencyTracker;
+            }
+        }
+        return latencyTracker;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.CallOutcome;
+import at.irian.cdiatwork.ideafork.remote.spi.ClientMetricsRecorder;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//default recorder - exposes the metrics as mx-beans (registered once they are used for the first time)
+@ApplicationScoped
+public class JmxMetricsRecorder implements ClientMetricsRecorder {
+    private static final Logger LOG = Logger.getLogger(JmxMetricsRecorder.class.getName());
+
+    private static final String DOMAIN = "at.irian.cdiatwork.ideafork.remote";
+
+    //nested maps (service -> method -> address) - a lookup doesn't allocate anything, the object-names are only built once
+    private ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, CallMetrics>>> callMetrics =
+        new ConcurrentHashMap<String, ConcurrentMap<String, ConcurrentMap<String, CallMetrics>>>();
+    private ConcurrentMap<String, ConcurrentMap<String, MethodMetrics>> methodMetrics =
+        new ConcurrentHashMap<String, ConcurrentMap<String, MethodMetrics>>();
+    private ConcurrentMap<String, LatencyMetrics> descriptorResolutionMetrics = new ConcurrentHashMap<String, LatencyMetrics>();
+
+    private Queue<ObjectName> registeredNames = new ConcurrentLinkedQueue<ObjectName>();
+
+    @Override
+    public void recordCall(String serviceKey, String address, String method, long durationInMicros, CallOutcome outcome) {
+        ConcurrentMap<String, CallMetrics> addressMetrics = getSubMap(getSubMap(callMetrics, serviceKey), method);
+        CallMetrics metrics = addressMetrics.get(address);
+
+        if (metrics == null) {
+            metrics = register(addressMetrics, address, new CallMetrics(),
+                "type=Call,service=" + ObjectName.quote(serviceKey) + ",method=" + ObjectName.quote(method) + ",address=" + ObjectName.quote(address));
+        }
+        metrics.record(durationInMicros, outcome);
+    }
+
+    @Override
+    public void recordFailover(String serviceKey, String method) {
+        getMethodMetrics(serviceKey, method).recordFailover();
+    }
+
+    @Override
+    public void recordDescriptorResolution(String serviceKey, long durationInMicros) {
+        LatencyMetrics metrics = descriptorResolutionMetrics.get(serviceKey);
+
+        if (metrics == null) {
+            metrics = register(descriptorResolutionMetrics, serviceKey, new LatencyMetrics(),
+                "type=DescriptorResolution,service=" + ObjectName.quote(serviceKey));
+        }
+        metrics.record(durationInMicros);
+    }
+
+    @Override
+    public void recordSerialization(String serviceKey, String method, long durationInMicros) {
+        getMethodMetrics(serviceKey, method).recordSerialization(durationInMicros);
+    }
+
+    @Override
+    public void recordDeserialization(String serviceKey, String method, long durationInMicros) {
+        getMethodMetrics(serviceKey, method).recordDeserialization(durationInMicros);
+    }
+
+    private MethodMetrics getMethodMetrics(String serviceKey, String method) {
+        ConcurrentMap<String, MethodMetrics> serviceMetrics = getSubMap(methodMetrics, serviceKey);
+        MethodMetrics metrics = serviceMetrics.get(method);
+
+        if (metrics == null) {
+            metrics = register(serviceMetrics, method, new MethodMetrics(),
+                "type=Method,service=" + ObjectName.quote(serviceKey) + ",method=" + ObjectName.quote(method));
+        }
+        return metrics;
+    }
+
+    private static <V> ConcurrentMap<String, V> getSubMap(ConcurrentMap<String, ConcurrentMap<String, V>> map, String key) {
+        ConcurrentMap<String, V> subMap = map.get(key);
+
+        if (subMap == null) {
+            ConcurrentMap<String, V> newSubMap = new ConcurrentHashMap<String, V>();
+            subMap = map.putIfAbsent(key, newSubMap);
+
+            if (subMap == null) {
+                subMap = newSubMap;
+            }
+        }
+        return subMap;
+    }
+
+    //only the instance which wins the race gets registered
+    private <T> T register(ConcurrentMap<String, T> metricsMap, String key, T newMetrics, String name) {
+        T metrics = metricsMap.putIfAbsent(key, newMetrics);
+
+        if (metrics != null) {
+            return metrics;
+        }
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":" + name);
+            mBeanServer.registerMBean(newMetrics, objectName);
+            registeredNames.add(objectName);
+        } catch (JMException e) {
+            LOG.log(Level.FINE, "failed to register " + name, e); //e.g. used by several applications in the same jvm
+        }
+        return newMetrics;
+    }
+
+    @PreDestroy
+    protected void unregister() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        for (ObjectName objectName : registeredNames) {
+            try {
+                if (mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                LOG.log(Level.FINE, "failed to unregister " + objectName, e);
+            }
+        }
+        registeredNames.clear();
+        callMetrics.clear();
+        methodMetrics.clear();
+        descriptorResolutionMetrics.clear();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+public class LatencyMetrics implements LatencyMetricsMXBean {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public void record(long durationInMicros) {
+        histogram.record(durationInMicros);
+    }
+
+    @Override
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    @Override
+    public double getMeanLatency() {
+        return histogram.getMean();
+    }
+
+    @Override
+    public long getMaxLatency() {
+        return histogram.getMax();
+    }
+
+    @Override
+    public long getMedianLatency() {
+        return histogram.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long get95thPercentileLatency() {
+        return histogram.getValueAtPercentile(95);
+    }
+
+    @Override
+    public long get99thPercentileLatency() {
+        return histogram.getValueAtPercentile(99);
+    }
+}
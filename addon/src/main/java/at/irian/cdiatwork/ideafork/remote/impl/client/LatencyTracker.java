@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+//latencies (in microseconds) of the current and the previous time-window - old values shouldn't dominate forever
+public class LatencyTracker {
+    private static final long WINDOW_LENGTH = 60_000;
+    private static final long RECALCULATION_INTERVAL = 1000;
+    private static final int MIN_SAMPLE_COUNT = 20;
+
+    private volatile LatencyHistogram currentWindow = new LatencyHistogram();
+    private volatile LatencyHistogram previousWindow;
+    private volatile long windowStart = System.currentTimeMillis();
+
+    //percentiles used for hedging and adaptive timeouts
+    private ConcurrentMap<Double, CachedPercentile> cachedPercentiles = new ConcurrentHashMap<Double, CachedPercentile>();
+
+    public void record(long latencyInMicros) {
+        long now = System.currentTimeMillis();
+
+        if (now - windowStart > WINDOW_LENGTH) {
+            rotateWindow(now);
+        }
+        currentWindow.record(latencyInMicros);
+    }
+
+    //-1 if there are not enough values for a meaningful result
+    public long getValueAtPercentile(double percentile) {
+        long now = System.currentTimeMillis();
+        CachedPercentile cachedValue = cachedPercentiles.get(percentile);
+
+        if (cachedValue != null && now - cachedValue.calculatedAt < RECALCULATION_INTERVAL) {
+            return cachedValue.value;
+        }
+
+        long value = -1;
+        LatencyHistogram histogram = currentWindow;
+
+        if (histogram.getCount() < MIN_SAMPLE_COUNT) {
+            histogram = previousWindow;
+        }
+
+        if (histogram != null && histogram.getCount() >= MIN_SAMPLE_COUNT) {
+            value = histogram.getValueAtPercentile(percentile);
+        }
+
+        cachedPercentiles.put(percentile, new CachedPercentile(value, now));
+        return value;
+    }
+
+    private synchronized void rotateWindow(long now) {
+        if (now - windowStart > WINDOW_LENGTH) {
+            previousWindow = currentWindow;
+            currentWindow = new LatencyHistogram();
+            windowStart = now;
+        }
+    }
+
+    private static class CachedPercentile {
+        private final long value;
+        private final long calculatedAt;
+
+        private CachedPercentile(long value, long calculatedAt) {
+            this.value = value;
+            this.calculatedAt = calculatedAt;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.LoadBalancer;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@ApplicationScoped
+public class LeastOutstandingRequestsLoadBalancer implements LoadBalancer {
+    @Inject
+    private AddressStatistics addressStatistics;
+
+    @Override
+    public String getName() {
+        return "least-outstanding-requests";
+    }
+
+    @Override
+    public List<String> orderAddresses(String serviceKey, List<String> addresses) {
+        //random rotation first - otherwise the first address would win every tie (sorting is stable)
+        List<String> result = RoundRobinLoadBalancer.rotate(addresses, ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+
+        //snapshot - the values change concurrently
+        final Map<String, Integer> inFlightRequests = new HashMap<String, Integer>();
+        for (String address : result) {
+            inFlightRequests.put(address, addressStatistics.getInFlightRequests(serviceKey, address));
+        }
+
+        Collections.sort(result, new Comparator<String>() {
+            @Override
+            public int compare(String address1, String address2) {
+                return inFlightRequests.get(address1).compareTo(inFlightRequests.get(address2));
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.LoadBalancer;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+@ApplicationScoped
+public class LoadBalancerRegistry {
+    private static final Logger LOG = Logger.getLogger(LoadBalancerRegistry.class.getName());
+
+    private static final String DEFAULT_LOAD_BALANCER = "round-robin";
+
+    @Inject
+    @Any
+    private Instance<LoadBalancer> loadBalancers;
+
+    private ConcurrentMap<String, LoadBalancer> selectedLoadBalancers = new ConcurrentHashMap<String, LoadBalancer>();
+
+    //[service-name].load-balancer > @ResourceClient#loadBalancer > resource-client_load-balancer > round-robin
+    public LoadBalancer getLoadBalancer(InvocationPlan invocationPlan) {
+        String selectionKey = invocationPlan.getServiceName() + "|" + invocationPlan.getLoadBalancer();
+        LoadBalancer loadBalancer = selectedLoadBalancers.get(selectionKey);
+
+        if (loadBalancer == null) {
+            String loadBalancerName = ConfigResolver.getProjectStageAwarePropertyValue(invocationPlan.getServiceName() + ".load-balancer");
+
+            if (loadBalancerName == null) {
+                loadBalancerName = invocationPlan.getLoadBalancer();
+            }
+
+            if (loadBalancerName == null || loadBalancerName.isEmpty()) {
+                loadBalancerName = ConfigResolver.getProjectStageAwarePropertyValue("resource-client_load-balancer", DEFAULT_LOAD_BALANCER);
+            }
+
+            loadBalancer = findLoadBalancer(loadBalancerName);
+
+            if (loadBalancer == null) {
+                LOG.warning("unknown load-balancer '" + loadBalancerName + "' - using " + DEFAULT_LOAD_BALANCER);
+                loadBalancer = findLoadBalancer(DEFAULT_LOAD_BALANCER);
+            }
+            selectedLoadBalancers.put(selectionKey, loadBalancer);
+        }
+        return loadBalancer;
+    }
+
+    private LoadBalancer findLoadBalancer(String name) {
+        for (LoadBalancer loadBalancer : loadBalancers) {
+            if (name.equals(loadBalancer.getName())) {
+                return loadBalancer;
+            }
+        }
+        return null;
+    }
+}
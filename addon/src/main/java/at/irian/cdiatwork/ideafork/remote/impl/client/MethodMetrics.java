@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MethodMetrics implements MethodMetricsMXBean {
+    private final AtomicLong failoverCount = new AtomicLong();
+    private final LatencyHistogram serializationTimes = new LatencyHistogram();
+    private final LatencyHistogram deserializationTimes = new LatencyHistogram();
+
+    public void recordFailover() {
+        failoverCount.incrementAndGet();
+    }
+
+    public void recordSerialization(long durationInMicros) {
+        serializationTimes.record(durationInMicros);
+    }
+
+    public void recordDeserialization(long durationInMicros) {
+        deserializationTimes.record(durationInMicros);
+    }
+
+    @Override
+    public long getFailoverCount() {
+        return failoverCount.get();
+    }
+
+    @Override
+    public double getMeanSerializationTime() {
+        return serializationTimes.getMean();
+    }
+
+    @Override
+    public long get99thPercentileSerializationTime() {
+        return serializationTimes.getValueAtPercentile(99);
+    }
+
+    @Override
+    public double getMeanDeserializationTime() {
+        return deserializationTimes.getMean();
+    }
+
+    @Override
+    public long get99thPercentileDeserializationTime() {
+        return deserializationTimes.getValueAtPercentile(99);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+//@Path value parsed once into literal- and parameter-segments (normalized to /.../)
+//parameter-values get percent-encoded (as path-segment)
+public class PathTemplate {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<StringBuilder> PATH_BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(128);
+        }
+    };
+
+    private final String[] literals; //literals[i] is followed by the value of argument argIndexes[i] (the last one isn't)
+    private final int[] argIndexes;
+    private final int literalLength;
+
+    private PathTemplate(String[] literals, int[] argIndexes) {
+        this.literals = literals;
+        this.argIndexes = argIndexes;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    //pathParamNames is indexed by the parameter-index (null for other parameters)
+    public static PathTemplate compile(String path, String[] pathParamNames) {
+        if (!path.startsWith("/")) {
+            path = "/" + path;
+        }
+
+        if (!path.endsWith("/")) {
+            path += "/";
+        }
+
+        List<String> literals = new ArrayList<String>();
+        List<Integer> argIndexes = new ArrayList<Integer>();
+
+        int literalStart = 0;
+        int placeholderStart;
+        while ((placeholderStart = path.indexOf('{', literalStart)) != -1) {
+            int placeholderEnd = findPlaceholderEnd(path, placeholderStart);
+            String placeholder = path.substring(placeholderStart + 1, placeholderEnd);
+
+            int regexSeparator = placeholder.indexOf(':'); //e.g. {id: [0-9]+}
+            String paramName = (regexSeparator != -1 ? placeholder.substring(0, regexSeparator) : placeholder).trim();
+
+            literals.add(path.substring(literalStart, placeholderStart));
+            argIndexes.add(findArgIndex(paramName, pathParamNames, path));
+            literalStart = placeholderEnd + 1;
+        }
+        literals.add(path.substring(literalStart));
+
+        int[] argIndexArray = new int[argIndexes.size()];
+        for (int i = 0; i < argIndexArray.length; i++) {
+            argIndexArray[i] = argIndexes.get(i);
+        }
+        return new PathTemplate(literals.toArray(new String[literals.size()]), argIndexArray);
+    }
+
+    public String render(Object[] args) {
+        if (argIndexes.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder pathBuilder = PATH_BUILDER.get();
+        pathBuilder.setLength(0);
+        pathBuilder.ensureCapacity(literalLength + argIndexes.length * 16);
+
+        for (int i = 0; i < argIndexes.length; i++) {
+            pathBuilder.append(literals[i]);
+
+            Object value = args[argIndexes[i]];
+            if (value != null) {
+                appendEncoded(pathBuilder, value.toString());
+            }
+        }
+        pathBuilder.append(literals[argIndexes.length]);
+        return pathBuilder.toString();
+    }
+
+    //nested braces are allowed in the regex-part of a placeholder
+    private static int findPlaceholderEnd(String path, int placeholderStart) {
+        int depth = 0;
+        for (int i = placeholderStart; i < path.length(); i++) {
+            char c = path.charAt(i);
+
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("unclosed placeholder in @Path: " + path);
+    }
+
+    private static int findArgIndex(String paramName, String[] pathParamNames, String path) {
+        for (int i = 0; i < pathParamNames.length; i++) {
+            if (paramName.equals(pathParamNames[i])) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("no @PathParam found for '" + paramName + "' of @Path: " + path);
+    }
+
+    //unreserved characters + sub-delims, ':' and '@' are allowed in a path-segment (rfc 3986) - everything else gets encoded
+    //exception: ';' would start matrix-parameters on the server-side
+    private static void appendEncoded(StringBuilder pathBuilder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (isAllowedInSegment(c)) {
+                pathBuilder.append(c);
+            } else if (c < 0x80) {
+                appendPercentEncoded(pathBuilder, c);
+            } else {
+                int end = Character.isHighSurrogate(c) && i + 1 < value.length() ? i + 2 : i + 1;
+                for (byte b : value.substring(i, end).getBytes(UTF_8)) {
+                    appendPercentEncoded(pathBuilder, b);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+    private static boolean isAllowedInSegment(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+            "-._~!$&'()*+,=:@".indexOf(c) != -1;
+    }
+
+    private static void appendPercentEncoded(StringBuilder pathBuilder, int b) {
+        pathBuilder.append('%').append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import javax.ws.rs.client.Client;
+
+public class PooledClient {
+    private final Client client;
+
+    private int leaseCount;
+    private long lastUsed = System.currentTimeMillis();
+    private boolean closed;
+
+    PooledClient(Client client) {
+        this.client = client;
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    synchronized boolean tryLease() {
+        if (closed) {
+            return false;
+        }
+        leaseCount++;
+        lastUsed = System.currentTimeMillis();
+        return true;
+    }
+
+    public synchronized void release() {
+        leaseCount--;
+        lastUsed = System.currentTimeMillis();
+    }
+
+    synchronized boolean closeIfIdle(long maxIdleTime) {
+        if (leaseCount > 0 || System.currentTimeMillis() - lastUsed < maxIdleTime) {
+            return false;
+        }
+        close();
+        return true;
+    }
+
+    synchronized void close() {
+        if (!closed) {
+            closed = true;
+            client.close();
+        }
+    }
+}
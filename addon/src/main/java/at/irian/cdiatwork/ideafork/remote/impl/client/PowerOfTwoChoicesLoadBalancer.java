@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.LoadBalancer;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+//picks two random addresses and prefers the one with less in-flight requests - the others are used for the failover
+@ApplicationScoped
+public class PowerOfTwoChoicesLoadBalancer implements LoadBalancer {
+    @Inject
+    private AddressStatistics addressStatistics;
+
+    @Override
+    public String getName() {
+        return "power-of-two-choices";
+    }
+
+    @Override
+    public List<String> orderAddresses(String serviceKey, List<String> addresses) {
+        List<String> result = new ArrayList<String>(addresses);
+        Collections.shuffle(result, ThreadLocalRandom.current());
+
+        if (result.size() > 1 &&
+            addressStatistics.getInFlightRequests(serviceKey, result.get(1)) < addressStatistics.getInFlightRequests(serviceKey, result.get(0))) {
+            Collections.swap(result, 0, 1);
+        }
+        return result;
+    }
+}
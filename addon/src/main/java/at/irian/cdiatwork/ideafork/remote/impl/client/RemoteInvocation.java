@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+//state of a single call - request-scoped information is captured in the calling thread
+public class RemoteInvocation {
+    private final InvocationPlan invocationPlan;
+    private final String serviceKey;
+    private final Object[] args;
+    private final String token;
+
+    private volatile String receivedToken;
+
+    //null for json
+    private String payloadMediaType;
+
+    //in ms - see AdaptiveTimeout
+    private long readTimeout;
+
+    //only set for GET requests with response-caching
+    private String cacheKey;
+    private CachedResponse cachedResponse;
+
+    public RemoteInvocation(InvocationPlan invocationPlan, String serviceKey, Object[] args, String token) {
+        this.invocationPlan = invocationPlan;
+        this.serviceKey = serviceKey;
+        this.args = args;
+        this.token = token;
+    }
+
+    public InvocationPlan getInvocationPlan() {
+        return invocationPlan;
+    }
+
+    public String getServiceKey() {
+        return serviceKey;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getReceivedToken() {
+        return receivedToken;
+    }
+
+    public void setReceivedToken(String receivedToken) {
+        this.receivedToken = receivedToken;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    //outdated entry which gets re-validated
+    public CachedResponse getCachedResponse() {
+        return cachedResponse;
+    }
+
+    public void setCachedResponse(CachedResponse cachedResponse) {
+        this.cachedResponse = cachedResponse;
+    }
+
+    public String getPayloadMediaType() {
+        return payloadMediaType;
+    }
+
+    public void setPayloadMediaType(String payloadMediaType) {
+        this.payloadMediaType = payloadMediaType;
+    }
+
+    public long getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(long readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+}
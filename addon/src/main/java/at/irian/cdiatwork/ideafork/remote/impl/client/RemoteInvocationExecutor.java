@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//bounded pool for asynchronous @ResourceClient calls - a full queue results in a RejectedExecutionException
+//+ a separated pool for hedged requests and scatter-gather calls (to avoid that they wait for async calls which wait for them)
+@ApplicationScoped
+public class RemoteInvocationExecutor {
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor hedgingExecutor;
+    private ThreadPoolExecutor scatterGatherExecutor;
+
+    @PostConstruct
+    protected void init() {
+        int poolSize = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_async-pool-size", "20"));
+        int queueSize = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_async-queue-size", "1000"));
+
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(queueSize), new NamedThreadFactory("resource-client-async"));
+        executor.allowCoreThreadTimeOut(true);
+
+        int hedgingPoolSize = Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_hedging-pool-size", "50"));
+        hedgingExecutor = new ThreadPoolExecutor(0, hedgingPoolSize, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), new NamedThreadFactory("resource-client-hedging"), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        int scatterGatherPoolSize = Integer.parseInt(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_scatter-gather-pool-size", "50"));
+        int scatterGatherQueueSize = Integer.parseInt(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_scatter-gather-queue-size", "1000"));
+        scatterGatherExecutor = new ThreadPoolExecutor(scatterGatherPoolSize, scatterGatherPoolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(scatterGatherQueueSize), new NamedThreadFactory("resource-client-scatter-gather"));
+        scatterGatherExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    //no queueing - without free thread a hedged request gets executed by the calling thread (= sequential failover)
+    public Executor getHedgingExecutor() {
+        return hedgingExecutor;
+    }
+
+    //bounded queue without caller-runs - the calling thread has to be free for the deadline (full queue -> RejectedExecutionException)
+    public Executor getScatterGatherExecutor() {
+        return scatterGatherExecutor;
+    }
+
+    @PreDestroy
+    protected void shutdown() {
+        executor.shutdownNow();
+        hedgingExecutor.shutdownNow();
+        scatterGatherExecutor.shutdownNow();
+    }
+
+    static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
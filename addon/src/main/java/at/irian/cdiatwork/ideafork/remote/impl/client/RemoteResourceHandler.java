@@ -21,16 +21,17 @@ package at.irian.cdiatwork.ideafork.remote.impl.client;
 import at.irian.cdiatwork.ideafork.jwt.api.IdentityHolder;
 import at.irian.cdiatwork.ideafork.jwt.impl.AuthenticationManager;
 import at.irian.cdiatwork.ideafork.remote.api.*;
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
+import at.irian.cdiatwork.ideafork.remote.spi.CallOutcome;
 import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
 import at.irian.cdiatwork.ideafork.remote.spi.ServiceInvocationContext;
 import at.irian.cdiatwork.ideafork.remote.spi.ServiceResolver;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.deltaspike.core.util.AnnotationUtils;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
 import org.apache.deltaspike.core.util.ClassUtils;
 import org.apache.deltaspike.core.util.ExceptionUtils;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
@@ -39,27 +40,48 @@ import javax.ws.rs.client.*;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Variant;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.annotation.Annotation;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @ApplicationScoped
 @ResourceClient(name = "", version = "")
 public class RemoteResourceHandler implements InvocationHandler {
     private static final Logger LOG = Logger.getLogger(RemoteResourceHandler.class.getName());
 
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String LOCAL_ADDRESS = "127.0.0.1";
+
     @Inject
     private BeanManager beanManager;
 
@@ -75,15 +97,58 @@ public class RemoteResourceHandler implements InvocationHandler {
     @Inject
     private ServiceInvocationContext serviceInvocationContext;
 
+    @Inject
+    private ResourceClientPool resourceClientPool;
+
+    @Inject
+    private PayloadMapper payloadMapper;
+
+    @Inject
+    private RemoteInvocationExecutor remoteInvocationExecutor;
+
+    @Inject
+    private InvocationStatistics invocationStatistics;
+
+    @Inject
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Inject
+    private LoadBalancerRegistry loadBalancerRegistry;
+
+    @Inject
+    private AddressStatistics addressStatistics;
+
+    @Inject
+    private AddressHealthChecker addressHealthChecker;
+
+    @Inject
+    private RequestCoalescer requestCoalescer;
+
+    @Inject
+    private ResponseCache responseCache;
+
+    @Inject
+    private ClientMetrics clientMetrics;
+
     private Map<String, ServiceDescriptor> previousServiceDescriptors = new ConcurrentHashMap<String, ServiceDescriptor>(); //in case one service couldn't connect - it shouldn't impact all others immediately (due to the immediate remove from the distributed cache)
-    private Map<String, String> preferredAddressHolder = new ConcurrentHashMap<String, String>();
+    private ConcurrentMap<Method, InvocationPlan> invocationPlans = new ConcurrentHashMap<Method, InvocationPlan>();
+
+    private int maxErrorBodySize;
+    private boolean binaryPayloadsEnabled;
+
+    @PostConstruct
+    protected void init() {
+        maxErrorBodySize = Integer.parseInt(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_max-error-body-size", "8192"));
+        binaryPayloadsEnabled = Boolean.parseBoolean(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_binary-payloads-enabled", "true"));
+    }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        ResourceClient resourceClient = AnnotationUtils.extractAnnotationFromMethodOrClass(beanManager, method, proxy.getClass(), ResourceClient.class);
+        InvocationPlan invocationPlan = getInvocationPlan(proxy.getClass(), method);
 
-        String serviceName = resourceClient.name();
-        String serviceVersion = resourceClient.version();
+        String serviceVersion = invocationPlan.getServiceVersion();
 
         String overruledVersion = serviceInvocationContext.getVersion();
 
@@ -91,8 +156,107 @@ public class RemoteResourceHandler implements InvocationHandler {
             serviceVersion = overruledVersion;
         }
 
-        String serviceKey = serviceVersion + "/" + serviceName;
+        String serviceKey = serviceVersion + "/" + invocationPlan.getServiceName();
+        final RemoteInvocation remoteInvocation = new RemoteInvocation(invocationPlan, serviceKey, args, identityHolder.getCurrentToken());
+
+        if (invocationPlan.isAsync()) {
+            //a token received by an async call can't be propagated to the (maybe no longer active) request of the caller
+            return remoteInvocationExecutor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return invokeRemoteService(remoteInvocation);
+                }
+            });
+        }
+
+        try {
+            return invokeRemoteService(remoteInvocation);
+        } finally {
+            if (remoteInvocation.getReceivedToken() != null) {
+                identityHolder.setCurrentToken(remoteInvocation.getReceivedToken());
+            }
+        }
+    }
+
+    private Object invokeRemoteService(final RemoteInvocation remoteInvocation) throws InterruptedException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+
+        if (invocationPlan.isScatterGather()) {
+            return performScatterGather(remoteInvocation);
+        }
+
+        if (!invocationPlan.isResponseCached() && !invocationPlan.isCoalesced()) {
+            return performInvocation(remoteInvocation);
+        }
+
+        String requestKey = createRequestKey(remoteInvocation);
+
+        if (invocationPlan.isResponseCached()) {
+            CachedResponse cachedResponse = responseCache.get(requestKey);
+
+            if (cachedResponse != null && cachedResponse.isFresh()) {
+                return cachedResponse.getValue();
+            }
+            remoteInvocation.setCacheKey(requestKey);
+
+            //outdated entries without ETag/Last-Modified can't be re-validated (-> normal request)
+            if (cachedResponse != null && cachedResponse.isRevalidatable()) {
+                remoteInvocation.setCachedResponse(cachedResponse);
+            }
+        }
+
+        if (!invocationPlan.isCoalesced()) {
+            return performInvocation(remoteInvocation);
+        }
+
+        return requestCoalescer.execute(requestKey, remoteInvocation, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return performInvocation(remoteInvocation);
+            }
+        });
+    }
+
+    //identifies identical GET requests (incl. the expected result-type and the token of the caller)
+    //the token isolates the results of different callers - if it changes with every call, cached results are never re-used
+    //variable parts are length-prefixed - otherwise e.g. q="a&b=c" would result in the same key as q="a" and b="c"
+    private String createRequestKey(RemoteInvocation remoteInvocation) {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        Object[] args = remoteInvocation.getArgs();
+
+        StringBuilder requestKey = new StringBuilder(remoteInvocation.getServiceKey())
+            .append('|').append(invocationPlan.getResponseType()).append('|');
+        appendKeyPart(requestKey, resolveSubPath(remoteInvocation));
+
+        int[] queryParamIndexes = invocationPlan.getQueryParamIndexes();
+        String[] queryParamNames = invocationPlan.getQueryParamNames();
+
+        for (int i = 0; i < queryParamIndexes.length; i++) {
+            appendKeyPart(requestKey, queryParamNames[i]);
+            appendKeyPart(requestKey, args[queryParamIndexes[i]]);
+        }
+        appendKeyPart(requestKey, remoteInvocation.getToken());
+        return requestKey.toString();
+    }
+
+    //"-" for null (a length always starts with a digit)
+    private static void appendKeyPart(StringBuilder requestKey, Object value) {
+        if (value == null) {
+            requestKey.append('-');
+            return;
+        }
+
+        String valueAsString = value.toString();
+        requestKey.append(valueAsString.length()).append(':').append(valueAsString);
+    }
+
+    private Object performInvocation(RemoteInvocation remoteInvocation) throws InterruptedException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        String serviceName = invocationPlan.getServiceName();
+        String serviceKey = remoteInvocation.getServiceKey();
+        long resolutionStart = System.nanoTime();
         ServiceDescriptor sd = serviceResolver.resolveServiceDetails(serviceKey);
+        clientMetrics.recordDescriptorResolution(serviceKey, (System.nanoTime() - resolutionStart) / 1000);
 
         boolean fireEvent = true;
         if (sd == null) {
@@ -103,289 +267,730 @@ public class RemoteResourceHandler implements InvocationHandler {
         }
 
         if (sd == null) {
-            LOG.logp(Level.WARNING, method.getDeclaringClass().getName(), serviceName, "service '" + serviceName + "' isn't available");
+            LOG.logp(Level.WARNING, invocationPlan.getDeclaringClassName(), serviceName, "service '" + serviceName + "' isn't available");
             return null;
         }
-        Client client = ClientBuilder.newClient();
+        remoteInvocation.setPayloadMediaType(selectPayloadMediaType(sd));
+        remoteInvocation.setReadTimeout(getReadTimeout(invocationPlan));
+
+        List<String> availableAddresses = new ArrayList<String>();
+        List<String> healthyAddresses = new ArrayList<String>();
+
+        //addresses with an open circuit are skipped entirely
+        for (String address : new LinkedHashSet<String>(sd.getAddresses())) {
+            String targetAddress = address + ":" + sd.getPort();
+
+            if (circuitBreakerRegistry.getCircuitBreaker(serviceKey, targetAddress).isCallPermitted()) {
+                availableAddresses.add(address);
+
+                addressHealthChecker.watch(targetAddress);
+                if (addressHealthChecker.isAlive(targetAddress)) {
+                    healthyAddresses.add(address);
+                }
+            }
+        }
 
-        client = client.property("http.connection.timeout", resourceClient.connectionTimeout());
-        client = client.property("http.receive.timeout", resourceClient.readTimeout());
+        //addresses which failed the last health-check are only used if there is no other address (the probe might be outdated)
+        if (!healthyAddresses.isEmpty()) {
+            availableAddresses = healthyAddresses;
+        }
 
         List<String> addressesToTry = new ArrayList<String>();
-        String preferredAddress = this.preferredAddressHolder.get(serviceKey);
 
-        if (preferredAddress != null) {
-            addressesToTry.add(preferredAddress);
+        if (!availableAddresses.isEmpty()) {
+            addressesToTry.addAll(loadBalancerRegistry.getLoadBalancer(invocationPlan).orderAddresses(serviceKey, availableAddresses));
         }
 
-        if (resourceClient.preferLocalNode() && !addressesToTry.contains("127.0.0.1")) {
-            addressesToTry.add("127.0.0.1"); //just to prefer the local-machine
+        if (invocationPlan.isPreferLocalNode()) {
+            String localTargetAddress = LOCAL_ADDRESS + ":" + sd.getPort();
+            addressHealthChecker.watch(localTargetAddress); //also while it's dead - otherwise the recovery wouldn't be detected
+
+            //the choice of the load-balancer stays first - the local machine (maybe without service) is the first fallback
+            if (!addressesToTry.contains(LOCAL_ADDRESS) && addressHealthChecker.isAlive(localTargetAddress) &&
+                    circuitBreakerRegistry.getCircuitBreaker(serviceKey, localTargetAddress).isCallPermitted()) {
+                addressesToTry.add(Math.min(1, addressesToTry.size()), LOCAL_ADDRESS);
+            }
         }
 
-        addressesToTry.addAll(sd.getAddresses());
+        if (addressesToTry.isEmpty()) {
+            LOG.logp(Level.WARNING, invocationPlan.getDeclaringClassName(), serviceName, "no address of service '" + serviceName + "' is available");
+            return null;
+        }
+
+        //leased after the address-selection - otherwise the early return above would leak the lease
+        PooledClient pooledClient = resourceClientPool.lease(serviceKey, invocationPlan.getConnectionTimeout(), remoteInvocation.getReadTimeout());
+        Client client = pooledClient.getClient();
 
         try {
+            if (invocationPlan.isHedged() && addressesToTry.size() > 1) {
+                return performHedgedInvocation(remoteInvocation, client, sd, addressesToTry, fireEvent);
+            }
+
             for (String address : addressesToTry) {
                 try {
-                    WebTarget webTarget = client.target(sd.getProtocol() + address + ":" + sd.getPort()).path(sd.getVersion()).path(sd.getTargetServiceMethod());
+                    return invokeAddress(remoteInvocation, client, sd, address);
+                } catch (Throwable t) {
+                    handleFailedAttempt(t, remoteInvocation, sd, address, fireEvent);
+                }
+            }
+        } finally {
+            pooledClient.release();
+        }
+        return null;
+    }
+
+    //calls all addresses of the descriptor (bounded by maxConcurrency) - failed addresses are part of the result
+    //failures don't fire ServiceNotReachableEvent (one unreachable node shouldn't remove the whole service)
+    private Object performScatterGather(RemoteInvocation remoteInvocation) throws InterruptedException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        ScatterGather scatterGather = invocationPlan.getScatterGather();
+        String serviceKey = remoteInvocation.getServiceKey();
+
+        long resolutionStart = System.nanoTime();
+        ServiceDescriptor sd = serviceResolver.resolveServiceDetails(serviceKey);
+        clientMetrics.recordDescriptorResolution(serviceKey, (System.nanoTime() - resolutionStart) / 1000);
 
-                    final Class responseType = method.getReturnType();
-                    Class genericResponseType = null;
+        if (sd == null) {
+            sd = this.previousServiceDescriptors.get(serviceKey);
+        } else {
+            this.previousServiceDescriptors.put(serviceKey, sd);
+        }
 
-                    if (Collection.class.isAssignableFrom(responseType)) {
-                        Object genericType = method.getGenericReturnType();
+        Map<String, Object> results = new LinkedHashMap<String, Object>();
+        Map<String, Throwable> errors = new LinkedHashMap<String, Throwable>();
 
-                        if (genericType instanceof ParameterizedType && ((ParameterizedType) genericType).getActualTypeArguments().length == 1) {
-                            ParameterizedType parameterizedType = (ParameterizedType)method.getGenericReturnType();
-                            Type[] genericTypeArguments = parameterizedType.getActualTypeArguments();
+        if (sd == null) {
+            LOG.logp(Level.WARNING, invocationPlan.getDeclaringClassName(), invocationPlan.getServiceName(),
+                "service '" + invocationPlan.getServiceName() + "' isn't available");
+            return combineResults(invocationPlan, new ScatterGatherResult<Object>(results, errors));
+        }
+        remoteInvocation.setPayloadMediaType(selectPayloadMediaType(sd));
 
-                            if (genericTypeArguments.length == 1 && genericTypeArguments[0] instanceof Class) {
-                                genericResponseType = ((Class)genericTypeArguments[0]);
-                            }
-                        }
-                    }
+        long deadline = scatterGather.deadline() < 0 ? invocationPlan.getConnectionTimeout() + invocationPlan.getReadTimeout() : scatterGather.deadline();
+        long deadlineAt = System.currentTimeMillis() + deadline;
 
+        PooledClient pooledClient = resourceClientPool.lease(serviceKey, invocationPlan.getConnectionTimeout(), invocationPlan.getReadTimeout());
+        Client client = pooledClient.getClient();
+        CompletionService<Object> completionService = new ExecutorCompletionService<Object>(remoteInvocationExecutor.getScatterGatherExecutor());
+        Map<Future<Object>, String> pendingCalls = new HashMap<Future<Object>, String>();
+        Iterator<String> addresses = new LinkedHashSet<String>(sd.getAddresses()).iterator();
 
-                    Object result = accessRemoteResource(args, webTarget, responseType, genericResponseType, method);
-                    this.preferredAddressHolder.put(serviceKey, address);
-                    return result;
-                } catch (Throwable t) {
-                    if (t instanceof UnexpectedServiceResultException) {
-                        IgnoreResultWithStatusCode ignoreResultWithStatusCodeAnnotation =
-                            AnnotationUtils.extractAnnotationFromMethod(beanManager, method, IgnoreResultWithStatusCode.class);
-
-                        if (ignoreResultWithStatusCodeAnnotation != null) {
-                            for (int statusCodeToIgnore : ignoreResultWithStatusCodeAnnotation.value()) {
-                                if (statusCodeToIgnore == ((UnexpectedServiceResultException) t).getErrorCode()) {
-                                    return null;
-                                }
-                            }
-                        }
-                        throw t;
+        try {
+            while (addresses.hasNext() || !pendingCalls.isEmpty()) {
+                while (addresses.hasNext() && pendingCalls.size() < Math.max(scatterGather.maxConcurrency(), 1)) {
+                    String address = addresses.next();
+
+                    try {
+                        pendingCalls.put(submitAttempt(completionService, remoteInvocation, client, sd, address), address);
+                    } catch (RejectedExecutionException e) {
+                        errors.put(address + ":" + sd.getPort(), e); //saturated pool - the address doesn't get called
                     }
+                }
 
-                    if (t instanceof ConnectException || t.getCause() instanceof ConnectException) {
-                        if (fireEvent) {
-                            this.beanManager.fireEvent(new ServiceNotReachableEvent(serviceKey));
-                        } else {
-                            this.previousServiceDescriptors.remove(serviceKey);
-                        }
-                        continue;
-                    }
+                if (pendingCalls.isEmpty()) {
+                    continue; //all remaining addresses got rejected
+                }
+
+                long remainingTime = deadlineAt - System.currentTimeMillis();
+                Future<Object> completedCall = remainingTime > 0 ? completionService.poll(remainingTime, TimeUnit.MILLISECONDS) : null;
 
-                    if (t instanceof SocketTimeoutException || t.getCause() instanceof SocketTimeoutException) {
-                        continue;
+                if (completedCall == null) {
+                    break;
+                }
+
+                String targetAddress = pendingCalls.remove(completedCall) + ":" + sd.getPort();
+                try {
+                    results.put(targetAddress, completedCall.get());
+                } catch (ExecutionException e) {
+                    errors.put(targetAddress, e.getCause());
+                }
+            }
+        } finally {
+            for (Future<Object> pendingCall : pendingCalls.keySet()) {
+                pendingCall.cancel(true);
+            }
+            pooledClient.release();
+        }
+
+        //addresses without result before the deadline (incl. addresses which weren't called at all)
+        for (Map.Entry<Future<Object>, String> pendingCall : pendingCalls.entrySet()) {
+            errors.put(pendingCall.getValue() + ":" + sd.getPort(), new TimeoutException("deadline of " + deadline + "ms exceeded"));
+        }
+        while (addresses.hasNext()) {
+            errors.put(addresses.next() + ":" + sd.getPort(), new TimeoutException("deadline of " + deadline + "ms exceeded"));
+        }
+        return combineResults(invocationPlan, new ScatterGatherResult<Object>(results, errors));
+    }
+
+    private static Object combineResults(InvocationPlan invocationPlan, ScatterGatherResult<Object> scatterGatherResult) {
+        ResultCombiner<Object> resultCombiner = invocationPlan.getResultCombiner();
+        return resultCombiner != null ? resultCombiner.combine(scatterGatherResult) : scatterGatherResult;
+    }
+
+    //the first binary format (in the order of the descriptor) which is supported by the client - null for json
+    private String selectPayloadMediaType(ServiceDescriptor sd) {
+        if (!binaryPayloadsEnabled || sd.getMediaTypes() == null) {
+            return null;
+        }
+
+        for (String mediaType : sd.getMediaTypes()) {
+            if (payloadMapper.isBinaryFormat(mediaType)) {
+                return mediaType;
+            }
+        }
+        return null;
+    }
+
+    //sends the request to the next address if there is no result after the hedging-delay - the first successful result wins
+    private Object performHedgedInvocation(RemoteInvocation remoteInvocation, Client client, ServiceDescriptor sd,
+                                           List<String> addressesToTry, boolean fireEvent) throws InterruptedException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        CompletionService<Object> completionService = new ExecutorCompletionService<Object>(remoteInvocationExecutor.getHedgingExecutor());
+        Map<Future<Object>, String> attempts = new HashMap<Future<Object>, String>();
+        Iterator<String> addresses = addressesToTry.iterator();
+
+        long hedgingDelay = getHedgingDelay(invocationPlan);
+        long maxWaitTime = invocationPlan.getConnectionTimeout() + remoteInvocation.getReadTimeout();
+
+        try {
+            submitAttempt(completionService, attempts, remoteInvocation, client, sd, addresses.next());
+            int runningAttempts = 1;
+
+            while (runningAttempts > 0) {
+                boolean hedgingPossible = addresses.hasNext();
+                Future<Object> completedAttempt = completionService.poll(hedgingPossible ? hedgingDelay : maxWaitTime, TimeUnit.MILLISECONDS);
+
+                if (completedAttempt == null) {
+                    if (!hedgingPossible) {
+                        break;
                     }
+                    submitAttempt(completionService, attempts, remoteInvocation, client, sd, addresses.next());
+                    runningAttempts++;
+                    continue;
+                }
+                runningAttempts--;
 
-                    LOG.logp(Level.WARNING, method.getDeclaringClass().getName(), serviceName, "failed remote-service call", t);
-                    throw ExceptionUtils.throwAsRuntimeException(t);
+                try {
+                    return completedAttempt.get();
+                } catch (ExecutionException e) {
+                    handleFailedAttempt(e.getCause(), remoteInvocation, sd, attempts.get(completedAttempt), fireEvent);
+
+                    if (addresses.hasNext()) { //failover without delay
+                        submitAttempt(completionService, attempts, remoteInvocation, client, sd, addresses.next());
+                        runningAttempts++;
+                    }
                 }
             }
         } finally {
-            client.close();
+            for (Future<Object> attempt : attempts.keySet()) {
+                attempt.cancel(true);
+            }
         }
         return null;
     }
 
-    private Object accessRemoteResource(Object[] args, WebTarget webTarget, Class responseType, Class genericResponseType, Method method) throws IOException {
-        Path subPath = method.getAnnotation(Path.class);
-        if (subPath != null) {
-            String subPathAsString = subPath.value();
-            subPathAsString = replaceTemplateValues(args, method, subPathAsString, 0);
+    private void submitAttempt(CompletionService<Object> completionService, Map<Future<Object>, String> attempts,
+                               RemoteInvocation remoteInvocation, Client client, ServiceDescriptor sd, String address) {
+        attempts.put(submitAttempt(completionService, remoteInvocation, client, sd, address), address);
+    }
 
-            if (!subPathAsString.startsWith("/")) {
-                subPathAsString = "/" + subPathAsString;
+    private Future<Object> submitAttempt(CompletionService<Object> completionService, final RemoteInvocation remoteInvocation,
+                                         final Client client, final ServiceDescriptor sd, final String address) {
+        return completionService.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return invokeAddress(remoteInvocation, client, sd, address);
             }
+        });
+    }
+
+    private long getHedgingDelay(InvocationPlan invocationPlan) {
+        Hedging hedging = invocationPlan.getHedging();
+        long hedgingDelay = hedging.delay();
+
+        if (hedgingDelay < 0) {
+            long observedLatency = invocationStatistics.getLatencyTracker(invocationPlan).getValueAtPercentile(hedging.percentile());
+            hedgingDelay = observedLatency < 0 ? invocationPlan.getReadTimeout() /*not enough values yet*/ : observedLatency / 1000;
+        }
+        return Math.max(hedgingDelay, hedging.minDelay());
+    }
+
+    //multiple of the observed latency (within the bounds) - the readTimeout of the @ResourceClient without AdaptiveTimeout
+    //quantized to powers of two (in ms) - every distinct timeout results in a separate pooled client
+    private long getReadTimeout(InvocationPlan invocationPlan) {
+        AdaptiveTimeout adaptiveTimeout = invocationPlan.getAdaptiveTimeout();
+        long maxTimeout = invocationPlan.getReadTimeout();
+
+        if (adaptiveTimeout == null) {
+            return maxTimeout;
+        }
+
+        if (adaptiveTimeout.maxTimeout() >= 0) {
+            maxTimeout = Math.min(adaptiveTimeout.maxTimeout(), maxTimeout);
+        }
+
+        long observedLatency = invocationStatistics.getLatencyTracker(invocationPlan).getValueAtPercentile(adaptiveTimeout.percentile());
+
+        if (observedLatency < 0) { //not enough values yet
+            return maxTimeout;
+        }
+
+        long timeout = Math.max((long) (observedLatency / 1000d * adaptiveTimeout.multiplier()), Math.max(adaptiveTimeout.minTimeout(), 1));
+        timeout = Long.highestOneBit(timeout - 1) << 1;
+        return Math.min(Math.max(timeout, 1), maxTimeout);
+    }
+
+    private Object invokeAddress(RemoteInvocation remoteInvocation, Client client, ServiceDescriptor sd, String address) throws Exception {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        String targetAddress = address + ":" + sd.getPort();
+
+        if (!resourceClientPool.acquireConnection(targetAddress, invocationPlan.getConnectionTimeout())) {
+            throw new AddressUnavailableException("no free connection for " + targetAddress);
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.getCircuitBreaker(remoteInvocation.getServiceKey(), targetAddress);
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            resourceClientPool.releaseConnection(targetAddress);
+            throw new AddressUnavailableException("circuit open for " + targetAddress);
+        }
 
-            if (!subPathAsString.endsWith("/")) {
-                subPathAsString += "/";
+        addressStatistics.onRequestStarted(remoteInvocation.getServiceKey(), address);
+
+        long start = System.nanoTime();
+        CallOutcome outcome = CallOutcome.ERROR;
+        boolean mappingFailure = false;
+        boolean serverError = false;
+        try {
+            WebTarget webTarget = client.target(sd.getProtocol() + targetAddress).path(sd.getVersion()).path(sd.getTargetServiceMethod());
+
+            Object result = accessRemoteResource(webTarget, remoteInvocation);
+
+            if (invocationPlan.isLatencyTracked()) {
+                invocationStatistics.getLatencyTracker(invocationPlan).record((System.nanoTime() - start) / 1000);
             }
-            webTarget = webTarget.path(subPathAsString);
+            outcome = CallOutcome.SUCCESS;
+            return result;
+        } catch (UnexpectedServiceResultException e) {
+            if (invocationPlan.isIgnoredStatusCode(e.getErrorCode())) {
+                outcome = CallOutcome.IGNORED_STATUS;
+                return null;
+            }
+            outcome = CallOutcome.UNEXPECTED_STATUS;
+            serverError = e.getErrorCode() >= 500;
+            throw e;
+        } catch (Exception e) {
+            if (isConnectionFailure(e)) {
+                outcome = CallOutcome.CONNECT_FAILURE;
+            } else if (isTimeout(e)) {
+                outcome = CallOutcome.TIMEOUT;
+
+                //otherwise the observed latency (and therefore the timeout) would only get shorter
+                if (invocationPlan.isAdaptiveTimeout()) {
+                    invocationStatistics.getLatencyTracker(invocationPlan).record((System.nanoTime() - start) / 1000);
+                }
+            } else {
+                mappingFailure = isMappingFailure(e);
+            }
+            throw e;
+        } finally {
+            long durationInMicros = (System.nanoTime() - start) / 1000;
+            long durationInMillis = durationInMicros / 1000;
+
+            addressStatistics.onRequestFinished(remoteInvocation.getServiceKey(), address, durationInMicros,
+                outcome == CallOutcome.SUCCESS || outcome == CallOutcome.IGNORED_STATUS);
+            clientMetrics.recordCall(remoteInvocation.getServiceKey(), address, invocationPlan.getMethodName(), durationInMicros, outcome);
+
+            if (outcome == CallOutcome.SUCCESS || outcome == CallOutcome.IGNORED_STATUS ||
+                    (outcome == CallOutcome.UNEXPECTED_STATUS && !serverError)) {
+                circuitBreaker.onSuccess(durationInMillis); //the address is reachable - 4xx are caused by the request
+            } else if (mappingFailure) {
+                circuitBreaker.onIgnoredCall(); //caused by the client (or the payload) and not by the address
+            } else {
+                circuitBreaker.onFailure(durationInMillis); //incl. 5xx and i/o errors like a connection-reset during the response
+            }
+            resourceClientPool.releaseConnection(targetAddress);
         }
+    }
 
-        if (method.getAnnotation(POST.class) != null) {
-            return performPostRequest(webTarget, args, responseType, genericResponseType, method);
+    //returns normally if the next address should be tried - otherwise the exception gets re-thrown
+    private void handleFailedAttempt(Throwable t, RemoteInvocation remoteInvocation, ServiceDescriptor sd, String address, boolean fireEvent) {
+        if (t instanceof UnexpectedServiceResultException) {
+            throw (UnexpectedServiceResultException) t;
         }
 
-        if (method.getAnnotation(GET.class) != null) {
-            return performGetRequest(webTarget, args, responseType, genericResponseType, method);
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        String serviceKey = remoteInvocation.getServiceKey();
+
+        if (t instanceof AddressUnavailableException) {
+            clientMetrics.recordFailover(serviceKey, invocationPlan.getMethodName());
+            return;
         }
 
-        if (method.getAnnotation(PUT.class) != null) {
-            return performPutRequest(webTarget, args, responseType, genericResponseType, method);
+        if (isConnectionFailure(t)) {
+            //the local machine (see @ResourceClient#preferLocalNode) isn't part of the descriptor (and says nothing about it)
+            if (LOCAL_ADDRESS.equals(address) && !sd.getAddresses().contains(LOCAL_ADDRESS)) {
+                clientMetrics.recordFailover(serviceKey, invocationPlan.getMethodName());
+                return;
+            }
+
+            if (fireEvent) {
+                this.beanManager.fireEvent(new ServiceNotReachableEvent(serviceKey));
+            } else {
+                this.previousServiceDescriptors.remove(serviceKey);
+            }
+            clientMetrics.recordFailover(serviceKey, invocationPlan.getMethodName());
+            return;
         }
 
-        if (method.getAnnotation(DELETE.class) != null) {
-            return performDeleteRequest(webTarget, responseType, genericResponseType, method);
+        if (isTimeout(t)) {
+            clientMetrics.recordFailover(serviceKey, invocationPlan.getMethodName());
+            return;
         }
 
-        return performPostRequest(webTarget, args, responseType, genericResponseType, method);
+        LOG.logp(Level.WARNING, invocationPlan.getDeclaringClassName(), invocationPlan.getServiceName(), "failed remote-service call", t);
+        throw ExceptionUtils.throwAsRuntimeException(t);
     }
 
-    //this prototype only supports post-requests
-    private <T> T performPostRequest(WebTarget webTarget, Object[] args, Class<T> responseType, Class genericResponseType, Method method) throws IOException {
-        Object value;
-
-        List<Object> filteredArgs = new ArrayList<>();
-        currentArg:
-        for (int i = 0; i < args.length; i++) {
-            for (Annotation parameterAnnotation : method.getParameterAnnotations()[i]) {
-                if (QueryParam.class.isAssignableFrom(parameterAnnotation.annotationType())) {
-                    String paramName = ((QueryParam) parameterAnnotation).value();
-                    webTarget = webTarget.queryParam(paramName, args[i]);
-                    continue currentArg;
-                }
+    private static boolean isConnectionFailure(Throwable t) {
+        return t instanceof ConnectException || t.getCause() instanceof ConnectException;
+    }
+
+    private static boolean isTimeout(Throwable t) {
+        return t instanceof SocketTimeoutException || t.getCause() instanceof SocketTimeoutException;
+    }
+
+    private static boolean isMappingFailure(Throwable t) {
+        return t instanceof JsonProcessingException || t.getCause() instanceof JsonProcessingException;
+    }
+
+    //also used by ResourceClientWarmup
+    InvocationPlan getInvocationPlan(Class<?> proxyClass, Method method) {
+        InvocationPlan invocationPlan = this.invocationPlans.get(method);
+
+        if (invocationPlan == null) {
+            InvocationPlan newInvocationPlan = InvocationPlanFactory.create(beanManager, payloadMapper, method, proxyClass);
+            //only one instance per method - the statistics (e.g. for the adaptive timeout) are collected per plan-instance
+            invocationPlan = this.invocationPlans.putIfAbsent(method, newInvocationPlan);
+
+            if (invocationPlan == null) {
+                invocationPlan = newInvocationPlan;
             }
-            filteredArgs.add(args[i]);
         }
+        return invocationPlan;
+    }
 
-        if (filteredArgs.size() == 1) {
-            value = filteredArgs.iterator().next();
-        } else if (!filteredArgs.isEmpty()) {
-            value = filteredArgs.toArray(new Object[filteredArgs.size()]);
-        } else {
-            value = new Object[]{};
+    private Object accessRemoteResource(WebTarget webTarget, RemoteInvocation remoteInvocation) throws IOException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+
+        String subPathAsString = resolveSubPath(remoteInvocation);
+        if (subPathAsString != null) {
+            webTarget = webTarget.path(subPathAsString);
         }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        value = createRequestObjectAsString(value, objectMapper);
+        String httpMethod = invocationPlan.getHttpMethod();
+
+        if (HttpMethod.GET.equals(httpMethod)) {
+            return performGetRequest(webTarget, remoteInvocation);
+        }
+
+        if (HttpMethod.PUT.equals(httpMethod)) {
+            return performPutRequest(webTarget, remoteInvocation);
+        }
+
+        if (HttpMethod.DELETE.equals(httpMethod)) {
+            return performDeleteRequest(webTarget, remoteInvocation);
+        }
+
+        return performPostRequest(webTarget, remoteInvocation);
+    }
+
+    private String resolveSubPath(RemoteInvocation remoteInvocation) {
+        PathTemplate pathTemplate = remoteInvocation.getInvocationPlan().getPathTemplate();
+        return pathTemplate != null ? pathTemplate.render(remoteInvocation.getArgs()) : null;
+    }
+
+    //this prototype only supports post-requests
+    private Object performPostRequest(WebTarget webTarget, RemoteInvocation remoteInvocation) throws IOException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        Object[] args = remoteInvocation.getArgs();
+
+        webTarget = addQueryParameters(webTarget, args, invocationPlan);
+
+        Object value = createRequestBody(args, invocationPlan, new Object[]{});
+        Entity<?> entity = createRequestEntity(value, remoteInvocation);
 
         Response response;
-        Invocation.Builder invocationBuilder =
-                webTarget.request().header(HttpHeaders.AUTHORIZATION, "Bearer " + identityHolder.getCurrentToken());
+        Invocation.Builder invocationBuilder = createRequestBuilder(webTarget, remoteInvocation);
 
-        if (!Void.TYPE.equals(responseType)) {
-            invocationBuilder.accept(MediaType.APPLICATION_JSON);
+        if (!invocationPlan.isVoidResult()) {
+            invocationBuilder.accept(getAcceptedMediaTypes(remoteInvocation));
         }
-        response = invocationBuilder.post(Entity.entity(value, MediaType.APPLICATION_JSON));
+        response = invocationBuilder.post(entity);
 
-        return processResponse(response, responseType, genericResponseType, objectMapper, method);
+        return processResponse(response, remoteInvocation);
     }
 
-    private Object performPutRequest(WebTarget webTarget, Object[] args, Class responseType, Class genericResponseType, Method method) throws IOException {
-        Object value = "";
-        if (args.length == 1) {
-            value = args[0];
-        } else {
-            List<Object> filteredArgs = new ArrayList<>();
-            currentArg:
-            for (int i = 0; i < args.length; i++) {
-                for (Annotation parameterAnnotation : method.getParameterAnnotations()[i]) {
-                    if (PathParam.class.isAssignableFrom(parameterAnnotation.annotationType())) {
-                        continue currentArg;
-                    }
-                }
-                filteredArgs.add(args[i]);
+    private Object performPutRequest(WebTarget webTarget, RemoteInvocation remoteInvocation) throws IOException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        Object[] args = remoteInvocation.getArgs();
+
+        Object value = createRequestBody(args, invocationPlan, "");
+        Entity<?> entity = createRequestEntity(value, remoteInvocation);
+
+        Response response;
+        Invocation.Builder invocationBuilder = createRequestBuilder(webTarget, remoteInvocation);
+
+        if (!invocationPlan.isVoidResult()) {
+            invocationBuilder.accept(getAcceptedMediaTypes(remoteInvocation));
+        }
+        response = invocationBuilder.buildPut(entity).invoke();
+        return processResponse(response, remoteInvocation);
+    }
+
+    //binary formats are only used if the service supports them (see ServiceDescriptor#getMediaTypes)
+    private Entity<?> createRequestEntity(Object value, RemoteInvocation remoteInvocation) {
+        String payloadMediaType = remoteInvocation.getPayloadMediaType();
+        int compressionThreshold = remoteInvocation.getInvocationPlan().getCompressionThreshold();
+
+        long serializationStart = System.nanoTime(); //incl. the compression
+        try {
+            String mediaType = MediaType.APPLICATION_JSON;
+            Object body;
+
+            if (payloadMediaType != null && !(value instanceof String)) {
+                mediaType = payloadMediaType;
+                body = payloadMapper.writeValueAsBytes(value, payloadMediaType);
+            } else {
+                body = createRequestObjectAsString(value);
             }
 
-            if (filteredArgs.size() == 1) {
-                value = filteredArgs.iterator().next();
-            } else if (!filteredArgs.isEmpty()) {
-                value = filteredArgs.toArray(new Object[filteredArgs.size()]);
+            if (compressionThreshold >= 0) {
+                byte[] content = body instanceof byte[] ? (byte[]) body : ((String) body).getBytes(UTF_8);
+
+                if (content.length > compressionThreshold) {
+                    return Entity.entity(compress(content), new Variant(MediaType.valueOf(mediaType), (String) null, GZIP_ENCODING));
+                }
             }
+            return Entity.entity(body, mediaType);
+        } catch (IOException e) {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        } finally {
+            clientMetrics.recordSerialization(remoteInvocation.getServiceKey(),
+                remoteInvocation.getInvocationPlan().getMethodName(), (System.nanoTime() - serializationStart) / 1000);
         }
+    }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        value = createRequestObjectAsString(value, objectMapper);
+    private static byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream compressedContent = new ByteArrayOutputStream(content.length / 2);
+        GZIPOutputStream gzipStream = new GZIPOutputStream(compressedContent);
+        try {
+            gzipStream.write(content);
+        } finally {
+            gzipStream.close();
+        }
+        return compressedContent.toByteArray();
+    }
 
-        Response response;
-        Invocation.Builder invocationBuilder =
-                webTarget.request().header(HttpHeaders.AUTHORIZATION, "Bearer " + identityHolder.getCurrentToken());
+    //compressed responses are only requested by clients with a compression-threshold
+    private static Invocation.Builder createRequestBuilder(WebTarget webTarget, RemoteInvocation remoteInvocation) {
+        Invocation.Builder requestBuilder = webTarget.request().header(HttpHeaders.AUTHORIZATION, "Bearer " + remoteInvocation.getToken());
 
-        if (!Void.TYPE.equals(responseType)) {
-            invocationBuilder.accept(MediaType.APPLICATION_JSON);
+        if (remoteInvocation.getInvocationPlan().getCompressionThreshold() >= 0) {
+            requestBuilder = requestBuilder.header(HttpHeaders.ACCEPT_ENCODING, GZIP_ENCODING);
         }
-        response = invocationBuilder.buildPut(Entity.entity(value, MediaType.APPLICATION_JSON)).invoke();
-        return processResponse(response, responseType, genericResponseType, objectMapper, method);
+        return requestBuilder;
     }
 
-    private String replaceTemplateValues(Object[] args, Method method, String subPathAsString, int startIndex) {
-        if (subPathAsString.contains("{")) {
-            String placeholder = subPathAsString.substring(subPathAsString.indexOf("{") + 1, subPathAsString.indexOf("}"));
-            int paramIndex = 0;
-            current:
-            for (Annotation[] annotations : method.getParameterAnnotations()) {
-                if (paramIndex < startIndex) {
-                    paramIndex++;
-                    continue;
-                }
-                for (Annotation annotation : annotations) {
-                    if (PathParam.class.isAssignableFrom(annotation.annotationType())) {
-                        String pathParamName = ((PathParam) annotation).value();
-
-                        if (placeholder.equals(pathParamName)) {
-                            Object paramValue = args[paramIndex];
-                            subPathAsString = subPathAsString.replace("{" + pathParamName + "}", paramValue != null ? paramValue.toString() : "");
-                            break current;
-                        }
-                    }
-                }
-                paramIndex++;
+    private static InputStream readEntityStream(Response response) throws IOException {
+        InputStream entityStream = response.readEntity(InputStream.class);
+
+        if (GZIP_ENCODING.equalsIgnoreCase(response.getHeaderString(HttpHeaders.CONTENT_ENCODING))) {
+            return new GZIPInputStream(entityStream);
+        }
+        return entityStream;
+    }
+
+    //json stays the fallback for endpoints which don't produce the binary format
+    private static String[] getAcceptedMediaTypes(RemoteInvocation remoteInvocation) {
+        String payloadMediaType = remoteInvocation.getPayloadMediaType();
+
+        if (payloadMediaType == null) {
+            return new String[]{MediaType.APPLICATION_JSON};
+        }
+        return new String[]{payloadMediaType, MediaType.APPLICATION_JSON + ";q=0.9"};
+    }
+
+    private Object createRequestBody(Object[] args, InvocationPlan invocationPlan, Object emptyValue) {
+        int[] bodyParamIndexes = invocationPlan.getBodyParamIndexes();
+
+        if (bodyParamIndexes.length == 1) {
+            return args[bodyParamIndexes[0]];
+        } else if (bodyParamIndexes.length > 1) {
+            Object[] values = new Object[bodyParamIndexes.length];
+            for (int i = 0; i < bodyParamIndexes.length; i++) {
+                values[i] = args[bodyParamIndexes[i]];
             }
-            return replaceTemplateValues(args, method, subPathAsString, paramIndex);
-        } else {
-            return subPathAsString;
+            return values;
         }
+        return emptyValue;
     }
 
-    private Object performGetRequest(WebTarget webTarget, Object[] args, Class responseType, Class genericResponseType, Method method) throws IOException {
-        //TODO test it
-        int paramIndex = 0;
-        for (Annotation[] annotations : method.getParameterAnnotations()) {
-            for (Annotation annotation : annotations) {
-                if (QueryParam.class.isAssignableFrom(annotation.annotationType())) {
-                    String paramName = ((QueryParam) annotation).value();
+    private WebTarget addQueryParameters(WebTarget webTarget, Object[] args, InvocationPlan invocationPlan) {
+        int[] queryParamIndexes = invocationPlan.getQueryParamIndexes();
+        String[] queryParamNames = invocationPlan.getQueryParamNames();
 
-                    webTarget = webTarget.queryParam(paramName, args[paramIndex]);
-                    break;
-                }
+        for (int i = 0; i < queryParamIndexes.length; i++) {
+            webTarget = webTarget.queryParam(queryParamNames[i], args[queryParamIndexes[i]]);
+        }
+        return webTarget;
+    }
+
+    private Object performGetRequest(WebTarget webTarget, RemoteInvocation remoteInvocation) throws IOException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        Object[] args = remoteInvocation.getArgs();
+
+        webTarget = addQueryParameters(webTarget, args, invocationPlan);
+
+        Invocation.Builder requestBuilder = createRequestBuilder(webTarget, remoteInvocation).accept(getAcceptedMediaTypes(remoteInvocation));
+
+        CachedResponse cachedResponse = remoteInvocation.getCachedResponse();
+        if (cachedResponse != null) { //conditional request to re-validate the outdated entry
+            if (cachedResponse.getETag() != null) {
+                requestBuilder = requestBuilder.header(HttpHeaders.IF_NONE_MATCH, cachedResponse.getETag());
+            }
+            if (cachedResponse.getLastModified() != null) {
+                requestBuilder = requestBuilder.header(HttpHeaders.IF_MODIFIED_SINCE, cachedResponse.getLastModified());
             }
-            paramIndex++;
         }
 
-        Response response = webTarget.request().header(HttpHeaders.AUTHORIZATION, "Bearer " + identityHolder.getCurrentToken()).accept(MediaType.APPLICATION_JSON).get();
+        Response response = requestBuilder.get();
+        return processResponse(response, remoteInvocation);
+    }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        return processResponse(response, responseType, genericResponseType, objectMapper, method);
+    private Object performDeleteRequest(WebTarget webTarget, RemoteInvocation remoteInvocation) throws IOException {
+        Response response = createRequestBuilder(webTarget, remoteInvocation).accept(getAcceptedMediaTypes(remoteInvocation)).delete();
+        return processResponse(response, remoteInvocation);
     }
 
-    private Object performDeleteRequest(WebTarget webTarget, Class responseType, Class genericResponseType, Method method) throws IOException {
-        Response response = webTarget.request().header(HttpHeaders.AUTHORIZATION, "Bearer " + identityHolder.getCurrentToken()).accept(MediaType.APPLICATION_JSON).delete();
+    private Object processResponse(Response response, RemoteInvocation remoteInvocation) throws IOException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        try {
+            String receivedToken = response.getHeaderString(HttpHeaders.AUTHORIZATION);
+
+            if (receivedToken != null) {
+                remoteInvocation.setReceivedToken(receivedToken);
+            }
+
+            CachedResponse cachedResponse = remoteInvocation.getCachedResponse();
+            if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode() && cachedResponse != null) {
+                long maxAge = ResponseCache.extractMaxAge(response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+                responseCache.put(remoteInvocation.getCacheKey(), cachedResponse.renew(System.currentTimeMillis() + Math.max(maxAge, 0)));
+                return cachedResponse.getValue();
+            }
+
+            if (response.getStatus() < 200 || response.getStatus() >= 300) {
+                throw new UnexpectedServiceResultException(response.getStatus(), readErrorBody(response));
+            }
+
+            if (invocationPlan.isVoidResult() || !response.hasEntity()) {
+                return null;
+            }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        return processResponse(response, responseType, genericResponseType, objectMapper, method);
+            if (remoteInvocation.getCacheKey() != null) {
+                return readCacheableResult(response, remoteInvocation);
+            }
+
+            //de-serialize the entity-stream directly (without buffering it as string)
+            return readResult(readEntityStream(response), getContentType(response), remoteInvocation);
+        } finally {
+            response.close();
+        }
     }
 
-    private <T> T processResponse(Response response, final Class<T> targetType, Class genericResponseType, ObjectMapper objectMapper, final Method method) throws IOException {
-        String receivedToken = response.getHeaderString(HttpHeaders.AUTHORIZATION);
+    private static String getContentType(Response response) {
+        MediaType mediaType = response.getMediaType();
 
-        if (receivedToken != null) {
-            identityHolder.setCurrentToken(receivedToken);
+        if (mediaType == null) {
+            return null;
         }
+        return mediaType.getType() + "/" + mediaType.getSubtype();
+    }
 
-        String responseBody = response.readEntity(String.class);
+    private Object readResult(InputStream inputStream, String contentType, RemoteInvocation remoteInvocation) throws IOException {
+        InvocationPlan invocationPlan = remoteInvocation.getInvocationPlan();
+        PushbackInputStream entityStream = new PushbackInputStream(inputStream);
+        int firstByte = entityStream.read();
 
-        if (response.getStatus() < 200 || response.getStatus() >= 300) {
-            throw new UnexpectedServiceResultException(response.getStatus(), responseBody);
+        if (firstByte == -1) {
+            return null;
         }
+        entityStream.unread(firstByte);
 
-        if (Void.TYPE.equals(targetType) || responseBody == null || "".equals(responseBody)) {
+        long deserializationStart = System.nanoTime();
+        try {
+            return payloadMapper.readValue(entityStream, invocationPlan.getResponseType(), contentType);
+        } finally {
+            clientMetrics.recordDeserialization(remoteInvocation.getServiceKey(), invocationPlan.getMethodName(), (System.nanoTime() - deserializationStart) / 1000);
+        }
+    }
+
+    //the result gets cached if the response allows it - otherwise a previous entry gets removed
+    private Object readCacheableResult(Response response, RemoteInvocation remoteInvocation) throws IOException {
+        String cacheKey = remoteInvocation.getCacheKey();
+        long maxAge = ResponseCache.extractMaxAge(response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        String eTag = response.getHeaderString(HttpHeaders.ETAG);
+        String lastModified = response.getHeaderString(HttpHeaders.LAST_MODIFIED);
+
+        if (maxAge < 0 || (maxAge == 0 && eTag == null && lastModified == null)) {
+            responseCache.remove(cacheKey);
+            return readResult(readEntityStream(response), getContentType(response), remoteInvocation);
+        }
+
+        //buffered to know the size of the entry
+        ByteArrayOutputStream entity = new ByteArrayOutputStream();
+        InputStream entityStream = readEntityStream(response);
+        try {
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = entityStream.read(buffer)) != -1) {
+                entity.write(buffer, 0, count);
+            }
+        } finally {
+            entityStream.close();
+        }
+
+        Object result = readResult(new ByteArrayInputStream(entity.toByteArray()), getContentType(response), remoteInvocation);
+
+        responseCache.put(cacheKey, new CachedResponse(result, eTag, lastModified, System.currentTimeMillis() + maxAge, entity.size()));
+        return result;
+    }
+
+    private String readErrorBody(Response response) throws IOException {
+        if (!response.hasEntity()) {
             return null;
         }
 
-        if (Collection.class.isAssignableFrom(targetType)) {
-            JavaType typedList = objectMapper.getTypeFactory().constructCollectionType(ArrayList.class, genericResponseType);
-            return objectMapper.readValue(responseBody, typedList);
+        InputStream entityStream = readEntityStream(response);
+        try {
+            byte[] buffer = new byte[maxErrorBodySize];
+            int length = 0;
+            int count;
+            while (length < buffer.length && (count = entityStream.read(buffer, length, buffer.length - length)) != -1) {
+                length += count;
+            }
+            return new String(buffer, 0, length, UTF_8);
+        } finally {
+            entityStream.close();
         }
-        return objectMapper.readValue(responseBody, targetType);
     }
 
-    private Object createRequestObjectAsString(Object value, ObjectMapper objectMapper) {
+    private Object createRequestObjectAsString(Object value) {
         if (value instanceof String) {
             return value;
         }
         try {
-            value = objectMapper.writeValueAsString(value);
+            value = payloadMapper.writeValueAsString(value);
         } catch (JsonProcessingException e) {
             throw ExceptionUtils.throwAsRuntimeException(e);
         }
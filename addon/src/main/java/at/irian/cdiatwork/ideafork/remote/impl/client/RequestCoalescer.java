@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.core.util.ExceptionUtils;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+//single-flight: the first caller performs the request, concurrent callers with the same key wait for its result
+//the entry is removed once the request is done - results aren't cached
+@ApplicationScoped
+public class RequestCoalescer {
+    private ConcurrentMap<String, InFlightRequest> inFlightRequests = new ConcurrentHashMap<String, InFlightRequest>();
+
+    public Object execute(String requestKey, RemoteInvocation remoteInvocation, Callable<Object> remoteCall) throws InterruptedException {
+        InFlightRequest newRequest = new InFlightRequest(remoteInvocation, remoteCall);
+        InFlightRequest inFlightRequest = inFlightRequests.putIfAbsent(requestKey, newRequest);
+
+        if (inFlightRequest == null) {
+            try {
+                newRequest.run();
+            } finally {
+                inFlightRequests.remove(requestKey, newRequest);
+            }
+            inFlightRequest = newRequest;
+        }
+
+        try {
+            return inFlightRequest.get();
+        } catch (ExecutionException e) {
+            throw ExceptionUtils.throwAsRuntimeException(e.getCause());
+        } finally {
+            if (inFlightRequest != newRequest) {
+                remoteInvocation.setReceivedToken(inFlightRequest.remoteInvocation.getReceivedToken());
+            }
+        }
+    }
+
+    private static class InFlightRequest extends FutureTask<Object> {
+        private final RemoteInvocation remoteInvocation;
+
+        private InFlightRequest(RemoteInvocation remoteInvocation, Callable<Object> remoteCall) {
+            super(remoteCall);
+            this.remoteInvocation = remoteInvocation;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+//clients are thread-safe and keep their connections (keep-alive) - therefore they get re-used per service and timeout-settings
+@ApplicationScoped
+public class ResourceClientPool {
+    private static final Logger LOG = Logger.getLogger(ResourceClientPool.class.getName());
+
+    private ConcurrentMap<String, PooledClient> pooledClients = new ConcurrentHashMap<String, PooledClient>();
+    private ConcurrentMap<String, Semaphore> connectionPermits = new ConcurrentHashMap<String, Semaphore>();
+
+    private int maxConnectionsPerAddress;
+    private long maxIdleTime;
+
+    @PostConstruct
+    protected void init() {
+        maxConnectionsPerAddress = Integer.parseInt(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_max-connections-per-address", "50"));
+        maxIdleTime = Long.parseLong(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_max-idle-time", "300000"));
+    }
+
+    public PooledClient lease(String serviceKey, long connectionTimeout, long readTimeout) {
+        String clientKey = serviceKey + "|" + connectionTimeout + "|" + readTimeout;
+
+        while (true) {
+            PooledClient pooledClient = pooledClients.get(clientKey);
+
+            if (pooledClient == null) {
+                PooledClient newPooledClient = new PooledClient(createClient(connectionTimeout, readTimeout));
+                pooledClient = pooledClients.putIfAbsent(clientKey, newPooledClient);
+
+                if (pooledClient == null) {
+                    pooledClient = newPooledClient;
+                } else {
+                    newPooledClient.close();
+                }
+            }
+
+            if (pooledClient.tryLease()) {
+                return pooledClient;
+            }
+            pooledClients.remove(clientKey, pooledClient); //closed by the idle-eviction in the meantime
+        }
+    }
+
+    //limits the parallel connections per host:port (independent of the service)
+    public boolean acquireConnection(String targetAddress, long timeout) throws InterruptedException {
+        Semaphore permits = connectionPermits.get(targetAddress);
+
+        if (permits == null) {
+            Semaphore newPermits = new Semaphore(maxConnectionsPerAddress);
+            permits = connectionPermits.putIfAbsent(targetAddress, newPermits);
+
+            if (permits == null) {
+                permits = newPermits;
+            }
+        }
+        return permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public void releaseConnection(String targetAddress) {
+        connectionPermits.get(targetAddress).release();
+    }
+
+    public void evictIdleClients() {
+        for (Map.Entry<String, PooledClient> entry : pooledClients.entrySet()) {
+            if (entry.getValue().closeIfIdle(maxIdleTime)) {
+                pooledClients.remove(entry.getKey(), entry.getValue());
+                LOG.fine("evicted idle client: " + entry.getKey());
+            }
+        }
+    }
+
+    @PreDestroy
+    protected void shutdown() {
+        for (PooledClient pooledClient : pooledClients.values()) {
+            pooledClient.close();
+        }
+        pooledClients.clear();
+    }
+
+    private static Client createClient(long connectionTimeout, long readTimeout) {
+        Client client = ClientBuilder.newClient();
+
+        client = client.property("http.connection.timeout", connectionTimeout);
+        client = client.property("http.receive.timeout", readTimeout);
+        return client;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceResolver;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//prepares everything the first call of a method would need otherwise (see ResourceClientWarmupExtension):
+//invocation-plans, jackson readers/writers, pooled clients and optionally descriptors and (keep-alive) connections
+@ApplicationScoped
+public class ResourceClientWarmup {
+    private static final Logger LOG = Logger.getLogger(ResourceClientWarmup.class.getName());
+
+    @Inject
+    private RemoteResourceHandler remoteResourceHandler;
+
+    @Inject
+    private ServiceResolver serviceResolver;
+
+    @Inject
+    private PayloadMapper payloadMapper;
+
+    @Inject
+    private ResourceClientPool resourceClientPool;
+
+    public void warmUp(Set<Class<?>> resourceClientClasses) {
+        long start = System.currentTimeMillis();
+
+        //service-key -> plan of one method (for the timeouts of the pooled client)
+        Map<String, InvocationPlan> services = new LinkedHashMap<String, InvocationPlan>();
+        int methodCount = 0;
+
+        for (Class<?> resourceClientClass : resourceClientClasses) {
+            for (Method method : resourceClientClass.getMethods()) {
+                if (!Modifier.isAbstract(method.getModifiers())) {
+                    continue; //not handled by RemoteResourceHandler
+                }
+
+                try {
+                    InvocationPlan invocationPlan = prepareMethod(resourceClientClass, method);
+                    services.put(invocationPlan.getServiceVersion() + "/" + invocationPlan.getServiceName(), invocationPlan);
+                    methodCount++;
+                } catch (RuntimeException e) {
+                    //the first call would fail as well - the warm-up just reports it earlier
+                    LOG.log(Level.WARNING, "warm-up failed for " + method.toGenericString(), e);
+                }
+            }
+        }
+        long plansFinished = System.currentTimeMillis();
+
+        boolean connectionsWarmedUp = Boolean.parseBoolean(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_warm-up-connections", "false"));
+        //resolving descriptors starts the registry (e.g. hazelcast) - otherwise that's done by the first call
+        boolean descriptorsResolved = connectionsWarmedUp || Boolean.parseBoolean(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_warm-up-descriptors", "false"));
+
+        Map<String, ServiceDescriptor> serviceDescriptors = new LinkedHashMap<String, ServiceDescriptor>();
+        if (descriptorsResolved) {
+            for (String serviceKey : services.keySet()) {
+                try {
+                    ServiceDescriptor serviceDescriptor = serviceResolver.resolveServiceDetails(serviceKey);
+
+                    if (serviceDescriptor != null) {
+                        serviceDescriptors.put(serviceKey, serviceDescriptor);
+                    }
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "resolving the descriptor of " + serviceKey + " failed", e);
+                }
+            }
+        }
+        long descriptorsFinished = System.currentTimeMillis();
+
+        int connectionCount = 0;
+        if (connectionsWarmedUp) {
+            for (Map.Entry<String, ServiceDescriptor> descriptorEntry : serviceDescriptors.entrySet()) {
+                connectionCount += openConnections(descriptorEntry.getKey(), descriptorEntry.getValue(), services.get(descriptorEntry.getKey()));
+            }
+        }
+        long connectionsFinished = System.currentTimeMillis();
+
+        LOG.info("warm-up of " + resourceClientClasses.size() + " resource-clients finished in " + (connectionsFinished - start) + "ms - " +
+            methodCount + " methods: " + (plansFinished - start) + "ms, " +
+            serviceDescriptors.size() + "/" + services.size() + " descriptors: " + (descriptorsFinished - plansFinished) + "ms, " +
+            connectionCount + " connections: " + (connectionsFinished - descriptorsFinished) + "ms");
+    }
+
+    private InvocationPlan prepareMethod(Class<?> resourceClientClass, Method method) {
+        InvocationPlan invocationPlan = remoteResourceHandler.getInvocationPlan(resourceClientClass, method);
+
+        if (!invocationPlan.isVoidResult()) {
+            payloadMapper.getReader(invocationPlan.getResponseType());
+        }
+
+        //the writer is resolved for the runtime-type of the body - only concrete parameter-types are known upfront
+        int[] bodyParamIndexes = invocationPlan.getBodyParamIndexes();
+        if (bodyParamIndexes.length == 1) {
+            Class<?> bodyType = method.getParameterTypes()[bodyParamIndexes[0]];
+
+            if (!bodyType.isInterface() && !Modifier.isAbstract(bodyType.getModifiers()) && !Object.class.equals(bodyType)) {
+                payloadMapper.getWriter(bodyType);
+            }
+        }
+
+        PooledClient pooledClient = resourceClientPool.lease(invocationPlan.getServiceVersion() + "/" + invocationPlan.getServiceName(),
+            invocationPlan.getConnectionTimeout(), invocationPlan.getReadTimeout());
+        pooledClient.release();
+        return invocationPlan;
+    }
+
+    //an OPTIONS request per address opens a keep-alive connection (without side-effects in the service)
+    private int openConnections(String serviceKey, ServiceDescriptor sd, InvocationPlan invocationPlan) {
+        PooledClient pooledClient = resourceClientPool.lease(serviceKey, invocationPlan.getConnectionTimeout(), invocationPlan.getReadTimeout());
+        int connectionCount = 0;
+
+        try {
+            for (String address : sd.getAddresses()) {
+                try {
+                    Response response = pooledClient.getClient()
+                        .target(sd.getProtocol() + address + ":" + sd.getPort()).path(sd.getVersion()).path(sd.getTargetServiceMethod())
+                        .request().options();
+                    response.close();
+                    connectionCount++;
+                } catch (RuntimeException e) {
+                    LOG.log(Level.FINE, "warm-up connection to " + address + ":" + sd.getPort() + " failed", e);
+                }
+            }
+        } finally {
+            pooledClient.release();
+        }
+        return connectionCount;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.api.ResourceClient;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+import org.apache.deltaspike.core.api.provider.BeanProvider;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Set;
+
+//collects all @ResourceClient interfaces (and abstract classes) and warms them up in the background after the deployment
+public class ResourceClientWarmupExtension implements Extension {
+    private Set<Class<?>> resourceClientClasses = new HashSet<Class<?>>();
+
+    protected void detectResourceClients(@Observes ProcessAnnotatedType pat) {
+        Class<?> beanClass = pat.getAnnotatedType().getJavaClass();
+
+        if (beanClass.isAnnotationPresent(ResourceClient.class) &&
+                (beanClass.isInterface() || Modifier.isAbstract(beanClass.getModifiers()))) {
+            resourceClientClasses.add(beanClass);
+        }
+    }
+
+    protected void warmUp(@Observes AfterDeploymentValidation afterDeploymentValidation, BeanManager beanManager) {
+        boolean warmupEnabled = Boolean.parseBoolean(
+            ConfigResolver.getProjectStageAwarePropertyValue("resource-client_warm-up-enabled", "true"));
+
+        if (!warmupEnabled || resourceClientClasses.isEmpty()) {
+            return;
+        }
+
+        final ResourceClientWarmup resourceClientWarmup = BeanProvider.getContextualReference(beanManager, ResourceClientWarmup.class, false);
+        final Set<Class<?>> classesToWarmUp = new HashSet<Class<?>>(resourceClientClasses);
+
+        //the bootstrapping of the container doesn't wait for the warm-up (e.g. for the cluster-join of the registry)
+        Thread warmupThread = new RemoteInvocationExecutor.NamedThreadFactory("resource-client-warm-up").newThread(new Runnable() {
+            @Override
+            public void run() {
+                resourceClientWarmup.warmUp(classesToWarmUp);
+            }
+        });
+        warmupThread.start();
+    }
+}
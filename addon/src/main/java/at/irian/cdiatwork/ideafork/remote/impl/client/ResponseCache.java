@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//lru-cache for results of GET requests - bounded by the (serialized) size of the cached responses
+@ApplicationScoped
+public class ResponseCache {
+    private static final long ENTRY_OVERHEAD = 128;
+
+    private final LinkedHashMap<String, CachedResponse> cachedResponses = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true);
+    private long currentSize;
+
+    private long maxSize;
+
+    @PostConstruct
+    protected void init() {
+        maxSize = Long.parseLong(ConfigResolver.getProjectStageAwarePropertyValue("resource-client_response-cache-max-size", "10485760"));
+    }
+
+    public synchronized CachedResponse get(String cacheKey) {
+        return cachedResponses.get(cacheKey);
+    }
+
+    public synchronized void put(String cacheKey, CachedResponse cachedResponse) {
+        long entrySize = entrySize(cacheKey, cachedResponse);
+
+        if (entrySize > maxSize / 10) { //a single entry shouldn't replace a large part of the cache
+            remove(cacheKey);
+            return;
+        }
+
+        CachedResponse previousResponse = cachedResponses.put(cacheKey, cachedResponse);
+        currentSize += entrySize;
+
+        if (previousResponse != null) {
+            currentSize -= entrySize(cacheKey, previousResponse);
+        }
+
+        for (Iterator<Map.Entry<String, CachedResponse>> entryIterator = cachedResponses.entrySet().iterator();
+             currentSize > maxSize && entryIterator.hasNext();) {
+            Map.Entry<String, CachedResponse> eldestEntry = entryIterator.next();
+            currentSize -= entrySize(eldestEntry.getKey(), eldestEntry.getValue());
+            entryIterator.remove();
+        }
+    }
+
+    public synchronized void remove(String cacheKey) {
+        CachedResponse removedResponse = cachedResponses.remove(cacheKey);
+
+        if (removedResponse != null) {
+            currentSize -= entrySize(cacheKey, removedResponse);
+        }
+    }
+
+    public synchronized void clear() {
+        cachedResponses.clear();
+        currentSize = 0;
+    }
+
+    //max-age in ms, 0 if the response has to be re-validated and -1 if it mustn't be stored
+    static long extractMaxAge(String cacheControl) {
+        if (cacheControl == null) {
+            return 0;
+        }
+
+        long maxAge = 0;
+        boolean revalidationRequired = false;
+
+        for (String directive : cacheControl.toLowerCase().split(",")) {
+            directive = directive.trim();
+
+            if ("no-store".equals(directive)) {
+                return -1;
+            }
+
+            if ("no-cache".equals(directive)) {
+                revalidationRequired = true;
+            } else if (directive.startsWith("max-age=")) {
+                try {
+                    maxAge = Long.parseLong(directive.substring("max-age=".length()).replace("\"", "")) * 1000;
+                } catch (NumberFormatException e) {
+                    maxAge = 0;
+                }
+            }
+        }
+        return revalidationRequired ? 0 : Math.max(maxAge, 0);
+    }
+
+    private static long entrySize(String cacheKey, CachedResponse cachedResponse) {
+        return ENTRY_OVERHEAD + cacheKey.length() * 2 + cachedResponse.getSize();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.LoadBalancer;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ApplicationScoped
+public class RoundRobinLoadBalancer implements LoadBalancer {
+    private ConcurrentMap<String, AtomicInteger> counters = new ConcurrentHashMap<String, AtomicInteger>();
+
+    @Override
+    public String getName() {
+        return "round-robin";
+    }
+
+    @Override
+    public List<String> orderAddresses(String serviceKey, List<String> addresses) {
+        AtomicInteger counter = counters.get(serviceKey);
+
+        if (counter == null) {
+            AtomicInteger newCounter = new AtomicInteger();
+            counter = counters.putIfAbsent(serviceKey, newCounter);
+
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        return rotate(addresses, counter.getAndIncrement());
+    }
+
+    static List<String> rotate(List<String> addresses, int offset) {
+        int addressCount = addresses.size();
+        List<String> result = new ArrayList<String>(addressCount);
+
+        if (addressCount == 0) {
+            return result;
+        }
+
+        int start = (offset & Integer.MAX_VALUE) % addressCount;
+        for (int i = 0; i < addressCount; i++) {
+            result.add(addresses.get((start + i) % addressCount));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.LoadBalancer;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+//previous behaviour - the address of the last successful call is used until it fails (followed by 127.0.0.1 - see preferLocalNode)
+@ApplicationScoped
+public class StickyLoadBalancer implements LoadBalancer {
+    @Inject
+    private AddressStatistics addressStatistics;
+
+    @Override
+    public String getName() {
+        return "sticky";
+    }
+
+    @Override
+    public List<String> orderAddresses(String serviceKey, List<String> addresses) {
+        List<String> result = new ArrayList<String>(addresses);
+        String preferredAddress = addressStatistics.getLastSuccessfulAddress(serviceKey);
+
+        if (preferredAddress != null && result.remove(preferredAddress)) {
+            result.add(0, preferredAddress);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.server;
+
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
+import org.apache.deltaspike.core.api.provider.BeanProvider;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+//server-side support for the binary formats advertised via [service-name].media-types
+//has to be registered in the jax-rs application (if providers aren't scanned automatically)
+@Provider
+@Produces({PayloadMapper.APPLICATION_SMILE, PayloadMapper.APPLICATION_CBOR})
+@Consumes({PayloadMapper.APPLICATION_SMILE, PayloadMapper.APPLICATION_CBOR})
+public class BinaryPayloadProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    private volatile PayloadMapper payloadMapper;
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinaryFormat(mediaType);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        PayloadMapper payloadMapper = getPayloadMapper();
+        return payloadMapper.readValue(entityStream, payloadMapper.constructType(genericType), toString(mediaType));
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinaryFormat(mediaType);
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        getPayloadMapper().writeValue(entityStream, value, toString(mediaType));
+    }
+
+    private boolean isBinaryFormat(MediaType mediaType) {
+        return mediaType != null && getPayloadMapper().isBinaryFormat(toString(mediaType));
+    }
+
+    //providers aren't necessarily managed by cdi
+    private PayloadMapper getPayloadMapper() {
+        if (payloadMapper == null) {
+            payloadMapper = BeanProvider.getContextualReference(PayloadMapper.class);
+        }
+        return payloadMapper;
+    }
+
+    private static String toString(MediaType mediaType) {
+        return mediaType.getType() + "/" + mediaType.getSubtype();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.server;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+import org.apache.deltaspike.core.api.provider.BeanProvider;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+
+//registers the gzip-handling for all endpoints published via the distributed cache (see SimpleEndpointScannerExtension)
+@Provider
+public class GzipEncodingFeature implements DynamicFeature {
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        if (!Boolean.parseBoolean(ConfigResolver.getProjectStageAwarePropertyValue("service.compression-enabled", "true"))) {
+            return;
+        }
+
+        SimpleEndpointScannerExtension endpointScannerExtension = BeanProvider.getContextualReference(SimpleEndpointScannerExtension.class);
+
+        for (Class endpointClass : endpointScannerExtension.getEndpointClasses()) {
+            if (endpointClass.isAssignableFrom(resourceInfo.getResourceClass())) {
+                context.register(GzipEncodingInterceptor.class);
+                return;
+            }
+        }
+    }
+}
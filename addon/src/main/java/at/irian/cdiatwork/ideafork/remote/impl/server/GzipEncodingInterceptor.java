@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.server;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+//decompresses gzip request-bodies and compresses responses if the client accepts it
+//(@ResourceClient proxies only accept gzip if a compression-threshold is configured)
+//responses up to service.compression-threshold bytes are sent uncompressed
+public class GzipEncodingInterceptor implements ReaderInterceptor, WriterInterceptor {
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String X_GZIP_ENCODING = "x-gzip";
+
+    @Context
+    private HttpHeaders requestHeaders;
+
+    private final int compressionThreshold =
+        Integer.parseInt(ConfigResolver.getProjectStageAwarePropertyValue("service.compression-threshold", "1024"));
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        MultivaluedMap<String, String> headers = context.getHeaders();
+
+        if (GZIP_ENCODING.equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            context.setInputStream(new GZIPInputStream(context.getInputStream()));
+        }
+        return context.proceed();
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || !isGzipAccepted(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            context.proceed();
+            return;
+        }
+
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        ThresholdGzipOutputStream compressingStream = new ThresholdGzipOutputStream(context.getOutputStream(), headers, compressionThreshold);
+        context.setOutputStream(compressingStream);
+        try {
+            context.proceed();
+        } finally {
+            compressingStream.finish();
+        }
+    }
+
+    //see RFC 7231 (5.3.4) - e.g. "gzip;q=0" or "*;q=0" reject gzip
+    private static boolean isGzipAccepted(String acceptedEncodings) {
+        if (acceptedEncodings == null) {
+            return false;
+        }
+
+        Boolean wildcardAccepted = null;
+        for (String acceptedEncoding : acceptedEncodings.split(",")) {
+            String[] parts = acceptedEncoding.split(";");
+            String coding = parts[0].trim();
+            boolean accepted = getQualityValue(parts) > 0;
+
+            if (GZIP_ENCODING.equalsIgnoreCase(coding) || X_GZIP_ENCODING.equalsIgnoreCase(coding)) {
+                return accepted;
+            }
+            if ("*".equals(coding)) {
+                wildcardAccepted = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcardAccepted);
+    }
+
+    private static float getQualityValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q') && parameter.charAt(1) == '=') {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0; //invalid -> not acceptable
+                }
+            }
+        }
+        return 1;
+    }
+
+    //buffers up to the threshold - the headers are changed before the first byte reaches the target-stream
+    private static class ThresholdGzipOutputStream extends OutputStream {
+        private final OutputStream targetStream;
+        private final MultivaluedMap<String, Object> headers;
+        private final int compressionThreshold;
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private GZIPOutputStream gzipStream;
+
+        private ThresholdGzipOutputStream(OutputStream targetStream, MultivaluedMap<String, Object> headers, int compressionThreshold) {
+            this.targetStream = targetStream;
+            this.headers = headers;
+            this.compressionThreshold = compressionThreshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (gzipStream != null) {
+                gzipStream.write(bytes, offset, length);
+                return;
+            }
+
+            buffer.write(bytes, offset, length);
+
+            if (buffer.size() > compressionThreshold) {
+                headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+
+                gzipStream = new GZIPOutputStream(targetStream);
+                buffer.writeTo(gzipStream);
+                buffer = null;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (gzipStream != null) {
+                gzipStream.flush();
+            } //otherwise the decision isn't made yet
+        }
+
+        //doesn't close the target-stream (that's up to the container)
+        private void finish() throws IOException {
+            if (gzipStream != null) {
+                gzipStream.finish();
+            } else if (buffer != null) {
+                buffer.writeTo(targetStream);
+                buffer = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            targetStream.close();
+        }
+    }
+}
@@ -23,22 +23,38 @@ import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class ServiceDescriptorFactory {
-    public static ServiceDescriptor create(String applicationPath, String resourceName, String serviceVersion) {
+    //host-addresses are resolved once per refresh (see ServiceRegistrar) - the lookup might need dns-requests
+    public static ServiceDescriptor create(String applicationPath, String resourceName, String serviceVersion, Set<String> hostAddresses) {
         String serviceName = ConfigResolver.getProjectStageAwarePropertyValue("service.name", "service");
         String targetPort = ConfigResolver.getProjectStageAwarePropertyValue(serviceName + ".http.port");
 
-        Set<String> serverAddresses = new HashSet<String>();
-        serverAddresses.addAll(getHostAddresses());
+        //descriptors are shared via the registry (and the near-cache of the clients)
+        Set<String> serverAddresses = Collections.unmodifiableSet(hostAddresses);
 
         ServiceDescriptor serviceDescriptor = new ServiceDescriptor(applicationPath, serverAddresses, targetPort, resourceName, serviceVersion);
+
+        //e.g. application/x-jackson-smile,application/cbor (needs BinaryPayloadProvider in the jax-rs application)
+        String mediaTypes = ConfigResolver.getProjectStageAwarePropertyValue(serviceName + ".media-types");
+
+        if (mediaTypes != null && !mediaTypes.trim().isEmpty()) {
+            List<String> supportedMediaTypes = new ArrayList<String>();
+
+            for (String mediaType : mediaTypes.split(",")) {
+                supportedMediaTypes.add(mediaType.trim());
+            }
+            serviceDescriptor.setMediaTypes(Collections.unmodifiableList(supportedMediaTypes));
+        }
         return serviceDescriptor;
     }
 
-    private static Set<String> getHostAddresses() {
+    public static Set<String> getHostAddresses() {
         Set<String> addresses = new HashSet<String>();
         try {
             InetAddress localhost = InetAddress.getLocalHost();
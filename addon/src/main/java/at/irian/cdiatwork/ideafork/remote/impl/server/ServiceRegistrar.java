@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.server;
+
+import at.irian.cdiatwork.ideafork.remote.spi.DistributedCacheManager;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+//registers the descriptors of all endpoints at startup and keeps them alive via heartbeats (see ServiceConfigUpdateTask)
+//entries of nodes which stop sending heartbeats expire after the ttl
+//descriptors (incl. the host-addresses) are created once and only re-created after the refresh-interval
+@ApplicationScoped
+public class ServiceRegistrar {
+    private static final Logger LOG = Logger.getLogger(ServiceRegistrar.class.getName());
+
+    @Inject
+    private SimpleEndpointScannerExtension endpointScannerExtension;
+
+    @Inject
+    private DistributedCacheManager cacheProvider;
+
+    //descriptor-key -> descriptor published by this node
+    private Map<String, ServiceDescriptor> localDescriptors = Collections.emptyMap();
+    private long nextRefresh;
+    private long nextTtlRefresh;
+
+    private long ttl;
+    private long refreshInterval;
+
+    @PostConstruct
+    protected void init() {
+        ttl = Long.parseLong(ConfigResolver.getProjectStageAwarePropertyValue("service-config_ttl", "30"));
+        refreshInterval = Long.parseLong(ConfigResolver.getProjectStageAwarePropertyValue("service-config_refresh-interval", "60000"));
+    }
+
+    public void register() {
+        heartbeat();
+    }
+
+    //one batch per heartbeat (independent of the number of endpoints)
+    //every write sends an update-event (with the value) to all nodes - therefore unchanged entries are only
+    //re-published after half of the ttl (the ttl has to cover several heartbeats)
+    public synchronized void heartbeat() {
+        Map<String, ServiceDescriptor> descriptors = getLocalDescriptors();
+
+        if (descriptors.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (ttl > 0 && now >= nextTtlRefresh) {
+            //re-publishing the descriptors resets their ttl
+            cacheProvider.putServiceDescriptors(descriptors, ttl, SECONDS);
+            nextTtlRefresh = now + SECONDS.toMillis(ttl) / 2;
+            return;
+        }
+
+        //in between only missing (e.g. removed via ServiceNotReachableEvent) or changed entries get written
+        Map<String, ServiceDescriptor> publishedDescriptors = cacheProvider.getServiceDescriptors(descriptors.keySet());
+        Map<String, ServiceDescriptor> changedDescriptors = new HashMap<String, ServiceDescriptor>();
+
+        for (Map.Entry<String, ServiceDescriptor> descriptorEntry : descriptors.entrySet()) {
+            if (!descriptorEntry.getValue().equals(publishedDescriptors.get(descriptorEntry.getKey()))) {
+                changedDescriptors.put(descriptorEntry.getKey(), descriptorEntry.getValue());
+            }
+        }
+
+        if (!changedDescriptors.isEmpty()) {
+            cacheProvider.putServiceDescriptors(changedDescriptors, ttl, SECONDS);
+            LOG.fine("published endpoint descriptors: " + changedDescriptors.keySet());
+        }
+    }
+
+    //only removes descriptors which weren't overwritten by other nodes in the meantime
+    @PreDestroy
+    protected synchronized void deregister() {
+        for (Map.Entry<String, ServiceDescriptor> registeredDescriptor : localDescriptors.entrySet()) {
+            try {
+                cacheProvider.getServiceDescriptors().remove(registeredDescriptor.getKey(), registeredDescriptor.getValue());
+                LOG.fine("removed endpoint descriptor: " + registeredDescriptor.getKey());
+            } catch (RuntimeException e) {
+                //the cache might not be available any longer during the shutdown - the ttl takes care of it in that case
+                LOG.log(Level.FINE, "failed to remove endpoint descriptor: " + registeredDescriptor.getKey(), e);
+            }
+        }
+        localDescriptors = Collections.emptyMap();
+        nextTtlRefresh = 0;
+    }
+
+    private Map<String, ServiceDescriptor> getLocalDescriptors() {
+        long now = System.currentTimeMillis();
+
+        if (now >= nextRefresh) {
+            Map<String, ServiceDescriptor> refreshedDescriptors = createDescriptors();
+
+            //equal content keeps the current instances
+            if (!refreshedDescriptors.equals(localDescriptors)) {
+                localDescriptors = Collections.unmodifiableMap(refreshedDescriptors);
+                LOG.fine("created endpoint descriptors: " + localDescriptors.keySet());
+            }
+            nextRefresh = now + refreshInterval;
+        }
+        return localDescriptors;
+    }
+
+    private Map<String, ServiceDescriptor> createDescriptors() {
+        Map<String, ServiceDescriptor> descriptors = new HashMap<String, ServiceDescriptor>();
+        String applicationPath = endpointScannerExtension.getApplicationPath();
+        String serviceVersion = endpointScannerExtension.getVersion();
+        Set<String> hostAddresses = null;
+
+        for (Class<?> endpointClass : endpointScannerExtension.getEndpointClasses()) {
+            Path path = endpointClass.getAnnotation(Path.class);
+
+            if (path != null) {
+                if (hostAddresses == null) {
+                    hostAddresses = ServiceDescriptorFactory.getHostAddresses();
+                }
+                ServiceDescriptor serviceDescriptor = ServiceDescriptorFactory.create(applicationPath, path.value(), serviceVersion, hostAddresses);
+                descriptors.put(serviceDescriptor.getKey(), serviceDescriptor);
+            }
+        }
+        return descriptors;
+    }
+}
@@ -18,15 +18,23 @@
  */
 package at.irian.cdiatwork.ideafork.remote.impl.server;
 
+import org.apache.deltaspike.core.api.provider.BeanProvider;
+
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
+import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.ProcessAnnotatedType;
 import javax.ws.rs.ApplicationPath;
 import javax.ws.rs.Path;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class SimpleEndpointScannerExtension implements Extension {
+    private static final Logger LOG = Logger.getLogger(SimpleEndpointScannerExtension.class.getName());
+
     private Set<Class> endpointClasses = new HashSet<Class>();
     private String applicationPath = "/";
     private String version = null;
@@ -44,7 +52,7 @@ public class SimpleEndpointScannerExtension implements Extension {
         createCacheEntryFor(beanClass);
     }
 
-    //needs to be aligned with the logic in ServiceConfigUpdateTask
+    //needs to be aligned with the logic in ServiceRegistrar
     private void createCacheEntryFor(Class<?> beanClass) {
         Path path = beanClass.getAnnotation(Path.class);
 
@@ -53,6 +61,29 @@ public class SimpleEndpointScannerExtension implements Extension {
         }
     }
 
+    //new nodes get traffic immediately (and not just after the first heartbeat)
+    //the registration starts (or joins) the registry - the bootstrapping of the container doesn't wait for it
+    protected void registerEndpoints(@Observes AfterDeploymentValidation afterDeploymentValidation, BeanManager beanManager) {
+        if (endpointClasses.isEmpty()) {
+            return;
+        }
+
+        final ServiceRegistrar serviceRegistrar = BeanProvider.getContextualReference(beanManager, ServiceRegistrar.class, false);
+
+        Thread registrationThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    serviceRegistrar.register();
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "initial registration of the endpoints failed - retrying with the next heartbeat", e);
+                }
+            }
+        }, "service-registration");
+        registrationThread.setDaemon(true);
+        registrationThread.start();
+    }
+
     public Set<Class> getEndpointClasses() {
         return endpointClasses;
     }
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.spi;
+
+//all durations are in microseconds - recorders get invoked by the calling thread and therefore they have to be thread-safe and fast
+//method is the name of the @ResourceClient method (interface#method) - address is the host of the called node
+public interface ClientMetricsRecorder {
+    void recordCall(String serviceKey, String address, String method, long durationInMicros, CallOutcome outcome);
+
+    //an attempt which failed in a way that the next address gets tried
+    void recordFailover(String serviceKey, String method);
+
+    void recordDescriptorResolution(String serviceKey, long durationInMicros);
+
+    void recordSerialization(String serviceKey, String method, long durationInMicros);
+
+    //the response gets de-serialized from the entity-stream - therefore it includes the time to receive the body
+    void recordDeserialization(String serviceKey, String method, long durationInMicros);
+}
@@ -18,10 +18,24 @@
  */
 package at.irian.cdiatwork.ideafork.remote.spi;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 public interface DistributedCacheManager {
+    //string-based entries (e.g. descriptors as json) - see DistributedCacheConfigSource
     ConcurrentMap<String, String> getCache();
 
+    //descriptors published via ServiceRegistrar (stored in a binary form)
+    ConcurrentMap<String, ServiceDescriptor> getServiceDescriptors();
+
     void removeLocally(String key);
+
+    //one round-trip for all keys - missing entries aren't part of the result
+    Map<String, ServiceDescriptor> getServiceDescriptors(Set<String> keys);
+
+    //written as one batch (key = ServiceDescriptor#getKey)
+    //the entries get removed if they aren't put again within the ttl (0 = no expiration)
+    void putServiceDescriptors(Map<String, ServiceDescriptor> serviceDescriptors, long ttl, TimeUnit timeUnit);
 }
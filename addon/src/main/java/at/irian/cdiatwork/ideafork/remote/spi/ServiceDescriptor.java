@@ -18,6 +18,8 @@
  */
 package at.irian.cdiatwork.ideafork.remote.spi;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 @SuppressWarnings("unused")
@@ -28,6 +30,7 @@ public class ServiceDescriptor {
     private String targetServiceMethod;
     private String key;
     private String version;
+    private List<String> mediaTypes; //supported binary formats (in the order of preference) - json is always supported
 
     public ServiceDescriptor() {
         //needed for de-serialization
@@ -93,4 +96,37 @@ public class ServiceDescriptor {
     public void setVersion(String version) {
         this.version = version;
     }
+
+    public List<String> getMediaTypes() {
+        return mediaTypes;
+    }
+
+    public void setMediaTypes(List<String> mediaTypes) {
+        this.mediaTypes = mediaTypes;
+    }
+
+    //used by the registry to detect changes (and to remove only own entries)
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ServiceDescriptor)) {
+            return false;
+        }
+
+        ServiceDescriptor that = (ServiceDescriptor) o;
+        return equals(protocol, that.protocol) && equals(addresses, that.addresses) && equals(port, that.port) &&
+            equals(targetServiceMethod, that.targetServiceMethod) && equals(key, that.key) &&
+            equals(version, that.version) && equals(mediaTypes, that.mediaTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(new Object[]{protocol, addresses, port, targetServiceMethod, key, version, mediaTypes});
+    }
+
+    private static boolean equals(Object value1, Object value2) {
+        return value1 == null ? value2 == null : value1.equals(value2);
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl;
+
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ServiceDescriptorSerializerTest {
+    private final ServiceDescriptorSerializer serializer = new ServiceDescriptorSerializer();
+
+    @Test
+    public void roundTrip() throws IOException {
+        ServiceDescriptor serviceDescriptor = new ServiceDescriptor("/app", new LinkedHashSet<String>(Arrays.asList("10.0.0.2", "10.0.0.1")), "8080", "users", "v1");
+        serviceDescriptor.setMediaTypes(Arrays.asList("application/cbor", "application/x-jackson-smile"));
+
+        ServiceDescriptor result = read(write(serviceDescriptor));
+
+        assertEquals(serviceDescriptor, result);
+        assertEquals("v1/users", result.getKey());
+        assertEquals(Arrays.asList("application/cbor", "application/x-jackson-smile"), result.getMediaTypes());
+    }
+
+    @Test
+    public void nullValuesAreKept() throws IOException {
+        ServiceDescriptor result = read(write(new ServiceDescriptor()));
+
+        assertEquals(new ServiceDescriptor(), result);
+        assertNull(result.getProtocol());
+        assertNull(result.getAddresses());
+        assertNull(result.getMediaTypes());
+    }
+
+    @Test
+    public void equalDescriptorsHaveEqualBinaryForm() throws IOException {
+        ServiceDescriptor serviceDescriptor1 = new ServiceDescriptor("/app", new LinkedHashSet<String>(Arrays.asList("10.0.0.1", "10.0.0.2", "10.0.0.3")), "8080", "users", "v1");
+        ServiceDescriptor serviceDescriptor2 = new ServiceDescriptor("/app", new LinkedHashSet<String>(Arrays.asList("10.0.0.3", "10.0.0.1", "10.0.0.2")), "8080", "users", "v1");
+
+        assertArrayEquals(write(serviceDescriptor1), write(serviceDescriptor2));
+    }
+
+    @Test
+    public void formatVersionIsWrittenFirst() throws IOException {
+        assertEquals(1, write(new ServiceDescriptor())[0]);
+    }
+
+    @Test
+    public void unsupportedFormatVersionIsRejected() throws IOException {
+        byte[] content = write(new ServiceDescriptor());
+        content[0] = 2;
+
+        try {
+            read(content);
+            fail("unsupported format-version wasn't detected");
+        } catch (IOException e) {
+            assertEquals("unsupported format-version of the service-descriptor: 2", e.getMessage());
+        }
+    }
+
+    private byte[] write(ServiceDescriptor serviceDescriptor) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        serializer.write(createProxy(ObjectDataOutput.class, new DataOutputStream(content)), serviceDescriptor);
+        return content.toByteArray();
+    }
+
+    private ServiceDescriptor read(byte[] content) throws IOException {
+        return serializer.read(createProxy(ObjectDataInput.class, new DataInputStream(new ByteArrayInputStream(content))));
+    }
+
+    //the serializer only uses the methods of DataOutput/DataInput - they get delegated to the given stream
+    private static <T> T createProxy(Class<T> type, final Object stream) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                try {
+                    return stream.getClass().getMethod(method.getName(), method.getParameterTypes()).invoke(stream, args);
+                } catch (NoSuchMethodException e) {
+                    throw new UnsupportedOperationException(method.getName());
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }));
+    }
+}
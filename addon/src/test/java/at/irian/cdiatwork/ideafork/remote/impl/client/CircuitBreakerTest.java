@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+    @Test
+    public void staysClosedBelowMinimumCalls() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 5, 50, 100, 1000, 60000, 2);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onFailure(1);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void opensAtFailureRateThreshold() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 4, 50, 100, 1000, 60000, 2);
+
+        circuitBreaker.onSuccess(1);
+        circuitBreaker.onFailure(1);
+        circuitBreaker.onSuccess(1);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onFailure(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.isCallPermitted());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void opensAtSlowCallRateThreshold() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 2, 100, 50, 100, 60000, 2);
+
+        circuitBreaker.onSuccess(10);
+        circuitBreaker.onSuccess(100);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void oldCallsLeaveTheWindow() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(4, 4, 50, 100, 1000, 60000, 2);
+
+        circuitBreaker.onFailure(1);
+        for (int i = 0; i < 6; i++) {
+            circuitBreaker.onSuccess(1);
+        }
+        //the failure isn't part of the window any longer
+        circuitBreaker.onFailure(1);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onFailure(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpenClosesAfterSuccessfulProbeCalls() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(2);
+
+        assertTrue(circuitBreaker.isCallPermitted());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        //no further probe calls until one of them is finished
+        assertFalse(circuitBreaker.isCallPermitted());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess(1);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess(1);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpenReopensOnFailedProbeCall() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(2);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpenReopensOnSlowProbeCall() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(2);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess(1000);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void ignoredCallReleasesProbePermission() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(1);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onIgnoredCall();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void resultOfCallStartedBeforeOpeningIsIgnored() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 1, 50, 100, 1000, 60000, 1);
+
+        circuitBreaker.onFailure(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        circuitBreaker.onSuccess(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    //open-duration 0 -> the next call is a probe call
+    private static CircuitBreaker openCircuitBreaker(int halfOpenCalls) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 1, 50, 100, 1000, 0, halfOpenCalls);
+        circuitBreaker.onFailure(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+}
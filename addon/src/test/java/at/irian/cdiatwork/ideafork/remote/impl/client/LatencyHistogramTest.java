@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    @Test
+    public void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 60; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(60, histogram.getCount());
+        assertEquals(60, histogram.getMax());
+        assertEquals(30.5, histogram.getMean(), 0.0001);
+        assertEquals(30, histogram.getValueAtPercentile(50));
+        assertEquals(54, histogram.getValueAtPercentile(90));
+        assertEquals(60, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentileIsUpperBoundOfBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.record(5000);
+
+        //1000 is in the bucket [992, 1007]
+        assertEquals(1007, histogram.getValueAtPercentile(50));
+        //capped by the max. value
+        assertEquals(5000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void relativeErrorIsBelowThreePercent() {
+        for (long value = 64; value < 1L << 40; value = value * 3 / 2 + 7) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(value * 2);
+
+            long percentileValue = histogram.getValueAtPercentile(50);
+
+            assertTrue(value + " -> " + percentileValue, percentileValue >= value);
+            assertTrue(value + " -> " + percentileValue, percentileValue - value <= value * 0.03);
+        }
+    }
+
+    @Test
+    public void valuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals((1L << 40) - 1, histogram.getMax());
+        assertEquals((1L << 40) - 1, histogram.getValueAtPercentile(100));
+    }
+}
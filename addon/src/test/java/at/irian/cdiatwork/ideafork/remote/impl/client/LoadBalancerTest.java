@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import at.irian.cdiatwork.ideafork.remote.spi.LoadBalancer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoadBalancerTest {
+    private static final String SERVICE_KEY = "test-service";
+    private static final List<String> ADDRESSES = Arrays.asList("10.0.0.1", "10.0.0.2", "10.0.0.3");
+
+    private AddressStatistics addressStatistics;
+
+    @Before
+    public void init() {
+        addressStatistics = new AddressStatistics();
+        addressStatistics.init();
+    }
+
+    @Test
+    public void rotate() {
+        assertEquals(Arrays.asList("10.0.0.2", "10.0.0.3", "10.0.0.1"), RoundRobinLoadBalancer.rotate(ADDRESSES, 1));
+        assertEquals(ADDRESSES, RoundRobinLoadBalancer.rotate(ADDRESSES, 3));
+        //negative offsets (counter overflow) are mapped to a valid start
+        assertEquals(3, RoundRobinLoadBalancer.rotate(ADDRESSES, Integer.MIN_VALUE).size());
+        assertTrue(RoundRobinLoadBalancer.rotate(Collections.<String>emptyList(), 5).isEmpty());
+    }
+
+    @Test
+    public void roundRobinRotatesPerService() {
+        LoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+
+        assertEquals("10.0.0.1", loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES).get(0));
+        assertEquals("10.0.0.2", loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES).get(0));
+        assertEquals("10.0.0.1", loadBalancer.orderAddresses("other-service", ADDRESSES).get(0));
+        assertEquals("10.0.0.3", loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES).get(0));
+        assertEquals("10.0.0.1", loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES).get(0));
+    }
+
+    @Test
+    public void stickyPrefersLastSuccessfulAddress() {
+        LoadBalancer loadBalancer = inject(new StickyLoadBalancer());
+
+        assertEquals(ADDRESSES, loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES));
+
+        finishRequest("10.0.0.3", 1000, true);
+        assertEquals(Arrays.asList("10.0.0.3", "10.0.0.1", "10.0.0.2"), loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES));
+
+        //failed calls don't change the preferred address
+        finishRequest("10.0.0.2", 1000, false);
+        assertEquals("10.0.0.3", loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES).get(0));
+
+        //unknown (e.g. removed) address
+        assertEquals(Arrays.asList("10.0.0.1", "10.0.0.2"), loadBalancer.orderAddresses(SERVICE_KEY, Arrays.asList("10.0.0.1", "10.0.0.2")));
+    }
+
+    @Test
+    public void leastOutstandingRequestsPrefersIdleAddress() {
+        LoadBalancer loadBalancer = inject(new LeastOutstandingRequestsLoadBalancer());
+
+        addressStatistics.onRequestStarted(SERVICE_KEY, "10.0.0.1");
+        addressStatistics.onRequestStarted(SERVICE_KEY, "10.0.0.1");
+        addressStatistics.onRequestStarted(SERVICE_KEY, "10.0.0.2");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Arrays.asList("10.0.0.3", "10.0.0.2", "10.0.0.1"), loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES));
+        }
+    }
+
+    @Test
+    public void powerOfTwoChoicesPrefersLessLoadedCandidate() {
+        LoadBalancer loadBalancer = inject(new PowerOfTwoChoicesLoadBalancer());
+
+        addressStatistics.onRequestStarted(SERVICE_KEY, "10.0.0.1");
+
+        for (int i = 0; i < 20; i++) {
+            List<String> result = loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES);
+
+            assertEquals(new HashSet<String>(ADDRESSES), new HashSet<String>(result));
+            //the busy address can't win against any other candidate
+            assertFalse("10.0.0.1".equals(result.get(0)));
+        }
+    }
+
+    @Test
+    public void ewmaLatencyPrefersFastAddress() {
+        LoadBalancer loadBalancer = inject(new EwmaLatencyLoadBalancer());
+
+        finishRequest("10.0.0.1", 5000, true);
+        finishRequest("10.0.0.2", 1000, true);
+        finishRequest("10.0.0.3", 2000, true);
+
+        assertEquals(Arrays.asList("10.0.0.2", "10.0.0.3", "10.0.0.1"), loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES));
+
+        //in-flight requests increase the expected latency
+        addressStatistics.onRequestStarted(SERVICE_KEY, "10.0.0.2");
+        addressStatistics.onRequestStarted(SERVICE_KEY, "10.0.0.2");
+        assertEquals(Arrays.asList("10.0.0.3", "10.0.0.2", "10.0.0.1"), loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES));
+    }
+
+    @Test
+    public void ewmaLatencyTriesUnknownAddressFirst() {
+        LoadBalancer loadBalancer = inject(new EwmaLatencyLoadBalancer());
+
+        finishRequest("10.0.0.1", 1000, true);
+        finishRequest("10.0.0.2", 1000, true);
+
+        assertEquals("10.0.0.3", loadBalancer.orderAddresses(SERVICE_KEY, ADDRESSES).get(0));
+    }
+
+    @Test
+    public void averageLatencyIsSmoothed() {
+        finishRequest("10.0.0.1", 1000, true);
+        assertEquals(1000, addressStatistics.getAverageLatency(SERVICE_KEY, "10.0.0.1"), 0.001);
+
+        //default smoothing-factor: 0.3
+        finishRequest("10.0.0.1", 2000, true);
+        assertEquals(1300, addressStatistics.getAverageLatency(SERVICE_KEY, "10.0.0.1"), 0.001);
+
+        //failed calls aren't part of the average
+        finishRequest("10.0.0.1", 100000, false);
+        assertEquals(1300, addressStatistics.getAverageLatency(SERVICE_KEY, "10.0.0.1"), 0.001);
+        assertEquals(0, addressStatistics.getInFlightRequests(SERVICE_KEY, "10.0.0.1"));
+    }
+
+    private void finishRequest(String address, long durationInMicros, boolean successful) {
+        addressStatistics.onRequestStarted(SERVICE_KEY, address);
+        addressStatistics.onRequestFinished(SERVICE_KEY, address, durationInMicros, successful);
+    }
+
+    private <T extends LoadBalancer> T inject(T loadBalancer) {
+        try {
+            Field field = loadBalancer.getClass().getDeclaredField("addressStatistics");
+            field.setAccessible(true);
+            field.set(loadBalancer, addressStatistics);
+            return loadBalancer;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PathTemplateTest {
+    @Test
+    public void pathIsNormalized() {
+        assertEquals("/users/", PathTemplate.compile("users", new String[0]).render(new Object[0]));
+        assertEquals("/users/", PathTemplate.compile("/users/", new String[0]).render(new Object[0]));
+    }
+
+    @Test
+    public void parametersAreMappedByName() {
+        PathTemplate pathTemplate = PathTemplate.compile("/{group}/users/{id}", new String[] {"id", null, "group"});
+
+        assertEquals("/admins/users/42/", pathTemplate.render(new Object[] {42, "ignored", "admins"}));
+    }
+
+    @Test
+    public void regexOfPlaceholderIsIgnored() {
+        PathTemplate pathTemplate = PathTemplate.compile("/users/{id: [0-9]{1,5}}", new String[] {"id"});
+
+        assertEquals("/users/7/", pathTemplate.render(new Object[] {7}));
+    }
+
+    @Test
+    public void nullValueIsRenderedAsEmptySegment() {
+        assertEquals("/users//", PathTemplate.compile("/users/{id}", new String[] {"id"}).render(new Object[] {null}));
+    }
+
+    @Test
+    public void allowedCharactersAreNotEncoded() {
+        String value = "aZ09-._~!$&'()*+,=:@";
+
+        assertEquals("/" + value + "/", PathTemplate.compile("{value}", new String[] {"value"}).render(new Object[] {value}));
+    }
+
+    @Test
+    public void reservedCharactersAreEncoded() {
+        PathTemplate pathTemplate = PathTemplate.compile("{value}", new String[] {"value"});
+
+        assertEquals("/a%2Fb%3Fc%23d%25e%20f/", pathTemplate.render(new Object[] {"a/b?c#d%e f"}));
+        assertEquals("/a%3Bb=c/", pathTemplate.render(new Object[] {"a;b=c"}));
+    }
+
+    @Test
+    public void nonAsciiCharactersAreEncodedAsUtf8() {
+        PathTemplate pathTemplate = PathTemplate.compile("{value}", new String[] {"value"});
+
+        assertEquals("/%C3%A4/", pathTemplate.render(new Object[] {"\u00e4"}));
+        assertEquals("/%E2%82%AC/", pathTemplate.render(new Object[] {"\u20ac"}));
+        assertEquals("/%F0%9F%98%80/", pathTemplate.render(new Object[] {"\ud83d\ude00"}));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void missingPathParamIsRejected() {
+        PathTemplate.compile("/users/{id}", new String[] {"name"});
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unclosedPlaceholderIsRejected() {
+        PathTemplate.compile("/users/{id", new String[] {"id"});
+    }
+}
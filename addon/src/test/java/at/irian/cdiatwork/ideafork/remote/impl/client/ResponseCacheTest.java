@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.impl.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseCacheTest {
+    private static final String MAX_SIZE_KEY = "resource-client_response-cache-max-size";
+
+    //key "kN" (2 chars) + overhead -> every entry has a size of 500
+    private static final long RESPONSE_SIZE = 500 - 128 - 2 * 2;
+
+    private ResponseCache responseCache;
+
+    @Before
+    public void init() {
+        System.setProperty(MAX_SIZE_KEY, "10000");
+        responseCache = new ResponseCache();
+        responseCache.init();
+    }
+
+    @After
+    public void cleanup() {
+        System.clearProperty(MAX_SIZE_KEY);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        for (int i = 0; i < 20; i++) {
+            responseCache.put("k" + (char) ('a' + i), createResponse(RESPONSE_SIZE));
+        }
+        //mark as recently used
+        assertNotNull(responseCache.get("ka"));
+
+        responseCache.put("kz", createResponse(RESPONSE_SIZE));
+
+        assertNotNull(responseCache.get("ka"));
+        assertNull(responseCache.get("kb"));
+        assertNotNull(responseCache.get("kc"));
+        assertNotNull(responseCache.get("kz"));
+    }
+
+    @Test
+    public void replacedEntryIsCountedOnce() {
+        for (int i = 0; i < 20; i++) {
+            responseCache.put("k" + (char) ('a' + i), createResponse(RESPONSE_SIZE));
+        }
+
+        CachedResponse newResponse = createResponse(RESPONSE_SIZE);
+        responseCache.put("kt", newResponse);
+
+        assertSame(newResponse, responseCache.get("kt"));
+        assertNotNull(responseCache.get("ka"));
+    }
+
+    @Test
+    public void removedEntryFreesSpace() {
+        for (int i = 0; i < 20; i++) {
+            responseCache.put("k" + (char) ('a' + i), createResponse(RESPONSE_SIZE));
+        }
+        responseCache.remove("kj");
+        responseCache.put("kz", createResponse(RESPONSE_SIZE));
+
+        assertNull(responseCache.get("kj"));
+        assertNotNull(responseCache.get("ka"));
+    }
+
+    @Test
+    public void largeEntryIsNotStored() {
+        responseCache.put("ka", createResponse(RESPONSE_SIZE));
+        assertNotNull(responseCache.get("ka"));
+
+        //more than 10% of the max. size - also removes the previous entry (it would be outdated)
+        responseCache.put("ka", createResponse(RESPONSE_SIZE + 501));
+        assertNull(responseCache.get("ka"));
+    }
+
+    @Test
+    public void clear() {
+        responseCache.put("ka", createResponse(RESPONSE_SIZE));
+        responseCache.clear();
+
+        assertNull(responseCache.get("ka"));
+    }
+
+    @Test
+    public void freshness() {
+        assertTrue(new CachedResponse("value", null, null, System.currentTimeMillis() + 60000, 1).isFresh());
+        assertFalse(new CachedResponse("value", null, null, System.currentTimeMillis() - 1, 1).isFresh());
+        assertFalse(new CachedResponse("value", null, null, 0, 1).isRevalidatable());
+        assertTrue(new CachedResponse("value", "\"1\"", null, 0, 1).isRevalidatable());
+        assertTrue(new CachedResponse("value", null, "Thu, 01 Jan 2015 00:00:00 GMT", 0, 1).isRevalidatable());
+    }
+
+    @Test
+    public void extractMaxAge() {
+        assertEquals(60000, ResponseCache.extractMaxAge("max-age=60"));
+        assertEquals(60000, ResponseCache.extractMaxAge("public, Max-Age=\"60\""));
+        assertEquals(0, ResponseCache.extractMaxAge(null));
+        assertEquals(0, ResponseCache.extractMaxAge("public"));
+        assertEquals(0, ResponseCache.extractMaxAge("max-age=abc"));
+        assertEquals(0, ResponseCache.extractMaxAge("max-age=-5"));
+        assertEquals(0, ResponseCache.extractMaxAge("max-age=60, no-cache"));
+        assertEquals(-1, ResponseCache.extractMaxAge("max-age=60, no-store"));
+    }
+
+    private static CachedResponse createResponse(long size) {
+        return new CachedResponse("value", "\"1\"", null, System.currentTimeMillis() + 60000, size);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.benchmark;
+
+import at.irian.cdiatwork.ideafork.remote.api.ResourceClient;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+
+@ResourceClient(name = BenchmarkClient.SERVICE_NAME, version = BenchmarkClient.SERVICE_VERSION, preferLocalNode = false)
+public interface BenchmarkClient {
+    String SERVICE_NAME = "benchmark";
+    String SERVICE_VERSION = "1";
+
+    @GET
+    @Path("ideas/{id}")
+    Idea load(@PathParam("id") String id, @QueryParam("details") boolean details);
+
+    @POST
+    @Path("ideas")
+    Idea save(Idea idea);
+}
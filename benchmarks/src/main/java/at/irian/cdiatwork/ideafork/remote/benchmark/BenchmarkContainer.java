@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.benchmark;
+
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
+import at.irian.cdiatwork.ideafork.remote.spi.DistributedCacheManager;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import org.apache.deltaspike.cdise.api.CdiContainer;
+import org.apache.deltaspike.cdise.api.CdiContainerLoader;
+import org.apache.deltaspike.cdise.api.ContextControl;
+import org.apache.deltaspike.core.api.provider.BeanProvider;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+//one cdi-container per benchmark-jvm (jmh forks a new jvm per benchmark)
+public final class BenchmarkContainer {
+    private static CdiContainer cdiContainer;
+
+    private BenchmarkContainer() {
+    }
+
+    public static synchronized void start() {
+        if (cdiContainer == null) {
+            cdiContainer = CdiContainerLoader.getCdiContainer();
+            cdiContainer.boot();
+            cdiContainer.getContextControl().startContext(ApplicationScoped.class);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (cdiContainer != null) {
+            cdiContainer.shutdown();
+            cdiContainer = null;
+        }
+    }
+
+    public static ContextControl createContextControl() {
+        return cdiContainer.getContextControl();
+    }
+
+    public static <T> T getBean(Class<T> beanType) {
+        return BeanProvider.getContextualReference(beanType);
+    }
+
+    //the descriptor which would be published by the server-side via the distributed cache
+    public static void registerService(int port) {
+        ServiceDescriptor serviceDescriptor = createServiceDescriptor(port);
+        getBean(DistributedCacheManager.class).putServiceDescriptors(
+            Collections.singletonMap(serviceDescriptor.getKey(), serviceDescriptor), 0, TimeUnit.SECONDS);
+    }
+
+    //descriptor as json in the string-based cache (like before the typed registry) - resolved via ConfigResolver
+    public static void registerServiceAsJson(int port) throws IOException {
+        ServiceDescriptor serviceDescriptor = createServiceDescriptor(port);
+        getBean(DistributedCacheManager.class).getCache().put(
+            serviceDescriptor.getKey(), getBean(PayloadMapper.class).writeValueAsString(serviceDescriptor));
+    }
+
+    private static ServiceDescriptor createServiceDescriptor(int port) {
+        return new ServiceDescriptor("", Collections.singleton("127.0.0.1"), String.valueOf(port),
+            BenchmarkClient.SERVICE_NAME, BenchmarkClient.SERVICE_VERSION);
+    }
+}
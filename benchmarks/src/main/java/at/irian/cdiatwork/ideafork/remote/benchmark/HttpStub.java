@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+//minimal endpoint without server-side logic - GET returns a static idea, POST echoes the request-body
+public class HttpStub {
+    static final byte[] IDEA_AS_JSON =
+        "{\"id\":\"42\",\"topic\":\"benchmark\",\"category\":\"performance\",\"description\":\"measure the client-side hot-path\"}".getBytes(UTF_8);
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    public HttpStub(String contextPath) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1000);
+        httpServer.createContext(contextPath, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] responseBody = "POST".equals(exchange.getRequestMethod()) ? readBody(exchange.getRequestBody()) : IDEA_AS_JSON;
+
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, responseBody.length);
+
+                OutputStream responseStream = exchange.getResponseBody();
+                try {
+                    responseStream.write(responseBody);
+                } finally {
+                    responseStream.close();
+                }
+            }
+        });
+        httpServer.setExecutor(executor);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static byte[] readBody(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                body.write(buffer, 0, count);
+            }
+        } finally {
+            inputStream.close();
+        }
+        return body.toByteArray();
+    }
+}
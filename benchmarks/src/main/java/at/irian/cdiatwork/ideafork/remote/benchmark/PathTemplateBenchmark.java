@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.benchmark;
+
+import at.irian.cdiatwork.ideafork.remote.impl.client.PathTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//rendered for every remote-invocation of a method with a @Path template
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathTemplateBenchmark {
+    private PathTemplate pathTemplate = PathTemplate.compile(
+        "ideas/{category}/{id}/revisions/{revision}", new String[]{"category", "id", "revision", null});
+    private Object[] args = new Object[]{"performance", "42", 7, "body"};
+    private Object[] argsToEncode = new Object[]{"performance tuning", "42/43", 7, "body"};
+
+    //the encoded values go on the wire as they are - a wrong encoding would be measured as well
+    @Setup
+    public void verifyEncoding() {
+        PathTemplate template = PathTemplate.compile("ideas/{id}", new String[]{"id"});
+
+        String[][] expectedSegments = {
+            {"a b", "a%20b"},
+            {"42/43", "42%2F43"},
+            {"100%", "100%25"},
+            {"%41", "%2541"}, //no double-decoding on the server-side
+            {"{id}", "%7Bid%7D"}, //no template-placeholder for WebTarget#path
+            {"a?b#c", "a%3Fb%23c"},
+            {"a;b", "a%3Bb"},
+            {"-._~!$&'()*+,=:@", "-._~!$&'()*+,=:@"},
+            {"\u00e4", "%C3%A4"},
+            {"\u20ac", "%E2%82%AC"},
+            {"\ud83d\ude00", "%F0%9F%98%80"}
+        };
+
+        for (String[] expectedSegment : expectedSegments) {
+            String renderedPath = template.render(new Object[]{expectedSegment[0]});
+
+            if (!renderedPath.equals("/ideas/" + expectedSegment[1] + "/")) {
+                throw new IllegalStateException("unexpected encoding of '" + expectedSegment[0] + "': " + renderedPath);
+            }
+        }
+    }
+
+    @Benchmark
+    public String render() {
+        return pathTemplate.render(args);
+    }
+
+    @Benchmark
+    public String renderEncoded() {
+        return pathTemplate.render(argsToEncode);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.benchmark;
+
+import at.irian.cdiatwork.ideafork.remote.impl.PayloadMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//request-body serialization (createRequestObjectAsString) and response de-serialization (processResponse)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadMapperBenchmark {
+    private PayloadMapper payloadMapper;
+    private JavaType responseType;
+    private Idea idea;
+
+    @Setup
+    public void setup() {
+        BenchmarkContainer.start();
+
+        payloadMapper = BenchmarkContainer.getBean(PayloadMapper.class);
+        responseType = payloadMapper.constructType(Idea.class);
+        idea = new Idea("42", "benchmark", "performance", "measure the client-side hot-path");
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkContainer.stop();
+    }
+
+    @Benchmark
+    public String serializeRequestBody() throws IOException {
+        return payloadMapper.writeValueAsString(idea);
+    }
+
+    @Benchmark
+    public Object deserializeResponseBody() throws IOException {
+        return payloadMapper.readValue(new ByteArrayInputStream(HttpStub.IDEA_AS_JSON), responseType);
+    }
+}
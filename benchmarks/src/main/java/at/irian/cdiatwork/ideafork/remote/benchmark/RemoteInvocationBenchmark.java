@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//end-to-end: @ResourceClient proxy -> RemoteResourceHandler -> http -> embedded stub
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteInvocationBenchmark {
+    private HttpStub httpStub;
+    private BenchmarkClient benchmarkClient;
+    private Idea idea;
+
+    @Setup
+    public void setup() throws IOException {
+        httpStub = new HttpStub("/" + BenchmarkClient.SERVICE_VERSION + "/" + BenchmarkClient.SERVICE_NAME);
+        httpStub.start();
+
+        BenchmarkContainer.start();
+        BenchmarkContainer.registerService(httpStub.getPort());
+
+        benchmarkClient = BenchmarkContainer.getBean(BenchmarkClient.class);
+        idea = new Idea("42", "benchmark", "performance", "measure the client-side hot-path");
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkContainer.stop();
+        httpStub.stop();
+    }
+
+    @Benchmark
+    public Idea get(RequestContextState requestContext) {
+        return benchmarkClient.load("42", true);
+    }
+
+    @Benchmark
+    public Idea post(RequestContextState requestContext) {
+        return benchmarkClient.save(idea);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package at.irian.cdiatwork.ideafork.remote.benchmark;
+
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceDescriptor;
+import at.irian.cdiatwork.ideafork.remote.spi.ServiceResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//descriptor-resolution via the typed registry or the json fallback (config-resolver + DistributedCacheConfigSource)
+//with the in-memory cache - a ttl of 0 de-activates the near-cache (every call measures the uncached resolution)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceResolverBenchmark {
+    @Param({"30000", "0"})
+    public String descriptorCacheTtl;
+
+    @Param({"typed", "json"})
+    public String descriptorFormat;
+
+    private ServiceResolver serviceResolver;
+    private String serviceKey;
+
+    @Setup
+    public void setup() throws IOException {
+        System.setProperty("service-descriptor_cache-ttl", descriptorCacheTtl);
+
+        BenchmarkContainer.start();
+        if ("json".equals(descriptorFormat)) {
+            BenchmarkContainer.registerServiceAsJson(8080);
+        } else {
+            BenchmarkContainer.registerService(8080);
+        }
+
+        serviceResolver = BenchmarkContainer.getBean(ServiceResolver.class);
+        serviceKey = BenchmarkClient.SERVICE_VERSION + "/" + BenchmarkClient.SERVICE_NAME;
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkContainer.stop();
+    }
+
+    @Benchmark
+    public ServiceDescriptor resolveServiceDetails() {
+        return serviceResolver.resolveServiceDetails(serviceKey);
+    }
+}